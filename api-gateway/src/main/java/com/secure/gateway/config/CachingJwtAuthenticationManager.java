@@ -0,0 +1,108 @@
+package com.secure.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Authentification des bearer tokens avec cache des tokens déjà validés.
+ * La vérification de la signature RS256 et la conversion des rôles ne sont faites
+ * qu'une fois par token, puis le résultat est réutilisé jusqu'à son expiration
+ * ({@code exp}). La clé du cache est l'empreinte SHA-256 du token.
+ * Les statistiques sont publiées sous le cache {@value #CACHE_NAME}.
+ */
+public class CachingJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    public static final String CACHE_NAME = "jwt-authentications";
+
+    private final JwtReactiveAuthenticationManager delegate;
+    private final Cache<String, JwtAuthenticationToken> cache;
+
+    public CachingJwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder,
+            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+            long maximumSize, Duration maxTtl, MeterRegistry meterRegistry) {
+        this.delegate = new JwtReactiveAuthenticationManager(jwtDecoder);
+        this.delegate.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, JwtAuthenticationToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtAuthenticationToken authentication, long currentTime) {
+                        return remainingNanos(authentication.getToken(), maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtAuthenticationToken authentication, long currentTime,
+                            long currentDuration) {
+                        return remainingNanos(authentication.getToken(), maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtAuthenticationToken authentication, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return Mono.empty();
+        }
+        String key = sha256(bearer.getToken());
+        JwtAuthenticationToken validated = cache.getIfPresent(key);
+        if (validated != null) {
+            return Mono.just(validated);
+        }
+        return delegate.authenticate(bearer)
+                .doOnNext(result -> {
+                    if (result instanceof JwtAuthenticationToken token) {
+                        cache.put(key, token);
+                    }
+                });
+    }
+
+    private static long remainingNanos(Jwt jwt, Duration maxTtl) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtl.toNanos();
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return 0;
+        }
+        return Math.min(remaining.toNanos(), maxTtl.toNanos());
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
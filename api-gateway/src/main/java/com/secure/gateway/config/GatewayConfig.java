@@ -1,49 +1,95 @@
 package com.secure.gateway.config;
 
-import lombok.extern.slf4j.Slf4j;
+import com.secure.common.security.InternalIdentity;
+import com.secure.gateway.filter.InternalIdentityFilter;
+import com.secure.gateway.filter.RequestTracingFilter;
+import com.secure.gateway.filter.ResponseCacheGatewayFilterFactory;
+import com.secure.gateway.filter.ResponseCacheStore;
+import com.secure.gateway.filter.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
-import org.springframework.http.server.reactive.ServerHttpRequest;
-import reactor.core.publisher.Mono;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.util.unit.DataSize;
 
-import java.util.UUID;
+import java.time.Duration;
 
 /**
- * Configuration des filtres globaux pour le logging et la traçabilité.
+ * Configuration des filtres globaux pour le logging et la traçabilité,
+ * ainsi que du cache de réponses et du limiteur de débit utilisés par les routes.
  */
 @Configuration
-@Slf4j
 public class GatewayConfig {
 
     /**
-     * Filtre global pour le logging des requêtes.
+     * Filtre global de traçabilité : identifiant de requête propagé, latence par
+     * route et journalisation des seules requêtes lentes, en erreur ou échantillonnées.
      */
     @Bean
     @Order(-1)
-    public GlobalFilter loggingFilter() {
-        return (exchange, chain) -> {
-            ServerHttpRequest request = exchange.getRequest();
-            String requestId = UUID.randomUUID().toString().substring(0, 8);
-
-            long startTime = System.currentTimeMillis();
-
-            log.info("[{}] Requête entrante: {} {} depuis {}",
-                    requestId,
-                    request.getMethod(),
-                    request.getURI().getPath(),
-                    request.getRemoteAddress());
-
-            return chain.filter(exchange)
-                    .then(Mono.fromRunnable(() -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        log.info("[{}] Réponse: {} - Durée: {}ms",
-                                requestId,
-                                exchange.getResponse().getStatusCode(),
-                                duration);
-                    }));
-        };
+    public GlobalFilter tracingFilter(MeterRegistry meterRegistry,
+            @Value("${gateway.tracing.sample-rate:0.01}") double sampleRate,
+            @Value("${gateway.tracing.slow-threshold:1s}") Duration slowThreshold) {
+        return new RequestTracingFilter(meterRegistry, sampleRate, slowThreshold);
+    }
+
+    /**
+     * Identité signée transmise aux services (optionnelle) ; l'en-tête envoyé par un
+     * client est retiré dans tous les cas.
+     */
+    @Bean
+    @Order(1)
+    public GlobalFilter internalIdentityFilter(
+            @Value("${internal.identity.enabled:false}") boolean enabled,
+            @Value("${internal.identity.secret:}") String secret,
+            @Value("${internal.identity.ttl:30s}") Duration ttl) {
+        byte[] key = enabled ? InternalIdentity.secretKey(secret) : new byte[0];
+        return new InternalIdentityFilter(key, ttl);
+    }
+
+    /**
+     * Stockage des réponses mises en cache, borné en octets et partagé par les routes.
+     */
+    @Bean
+    public ResponseCacheStore responseCacheStore(MeterRegistry meterRegistry,
+            @Value("${gateway.response-cache.maximum-size:64MB}") DataSize maximumSize) {
+        return new ResponseCacheStore(maximumSize, meterRegistry);
+    }
+
+    /**
+     * Filtre de route {@code ResponseCache} déclaré dans application.yml.
+     */
+    @Bean
+    public ResponseCacheGatewayFilterFactory responseCacheGatewayFilterFactory(ResponseCacheStore responseCacheStore) {
+        return new ResponseCacheGatewayFilterFactory(responseCacheStore);
+    }
+
+    /**
+     * Limiteur de débit en mémoire du filtre {@code RequestRateLimiter} ; les quotas
+     * sont déclarés par route dans application.yml.
+     */
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(ConfigurationService configurationService,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            @Value("${gateway.rate-limit.maximum-keys:100000}") long maximumKeys) {
+        return new TokenBucketRateLimiter(configurationService, meterRegistry,
+                new TokenBucketRateLimiter.Config(), idleTimeout, maximumKeys);
+    }
+
+    /**
+     * Les quotas sont comptés par utilisateur (claim {@code sub} du JWT).
+     */
+    @Bean
+    public KeyResolver subjectKeyResolver() {
+        return exchange -> exchange.getPrincipal()
+                .ofType(JwtAuthenticationToken.class)
+                .map(authentication -> authentication.getToken().getSubject());
     }
 
     /**
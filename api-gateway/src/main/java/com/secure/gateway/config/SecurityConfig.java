@@ -1,5 +1,10 @@
 package com.secure.gateway.config;
 
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.secure.common.security.JwtDecoderFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -8,10 +13,17 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.net.MalformedURLException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -27,7 +39,8 @@ import java.util.stream.Collectors;
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+            CachingJwtAuthenticationManager jwtAuthenticationManager) {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -36,6 +49,8 @@ public class SecurityConfig {
                         .pathMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                         // Endpoints publics
                         .pathMatchers("/actuator/health", "/actuator/info").permitAll()
+                        // Événements internes (secret partagé vérifié par le contrôleur)
+                        .pathMatchers("/internal/events/**").permitAll()
                         // Endpoints Swagger
                         .pathMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         // API Products - règles d'accès
@@ -45,7 +60,7 @@ public class SecurityConfig {
                         // Tout le reste nécessite authentification
                         .anyExchange().authenticated())
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
+                        .jwt(jwt -> jwt.authenticationManager(jwtAuthenticationManager)));
 
         return http.build();
     }
@@ -65,6 +80,38 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Décodeur JWT dont le jeu de clés Keycloak est rafraîchi en arrière-plan avant
+     * son expiration : une rotation de clés ne bloque pas les requêtes en cours.
+     * La vérification, rare grâce au cache des tokens, quitte la boucle d'événements.
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${security.jwt.jwks.ttl:15m}") Duration jwksTtl,
+            @Value("${security.jwt.jwks.refresh-ahead:1m}") Duration jwksRefreshAhead) throws MalformedURLException {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = JwtDecoderFactory.jwtProcessor(jwkSetUri, jwksTtl,
+                jwksRefreshAhead);
+        NimbusReactiveJwtDecoder decoder = new NimbusReactiveJwtDecoder(jwt -> Mono
+                .fromCallable(() -> jwtProcessor.process(jwt, null))
+                .subscribeOn(Schedulers.boundedElastic()));
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+
+    /**
+     * Authentification des bearer tokens avec cache des tokens déjà vérifiés.
+     */
+    @Bean
+    public CachingJwtAuthenticationManager jwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.jwt.cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.jwt.cache.max-ttl:5m}") Duration maxTtl) {
+        return new CachingJwtAuthenticationManager(jwtDecoder, jwtAuthenticationConverter(), maximumSize, maxTtl,
+                meterRegistry);
+    }
+
     @Bean
     public ReactiveJwtAuthenticationConverterAdapter jwtAuthenticationConverter() {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
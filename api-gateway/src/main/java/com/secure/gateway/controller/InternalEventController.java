@@ -0,0 +1,67 @@
+package com.secure.gateway.controller;
+
+import com.secure.gateway.event.ProductChangedEvent;
+import com.secure.gateway.filter.ResponseCacheStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+/**
+ * Réception des événements internes envoyés par les services.
+ * Ces endpoints ne passent pas par Keycloak : ils sont authentifiés par le secret
+ * partagé {@code internal.events.secret}.
+ */
+@RestController
+@RequestMapping("/internal/events")
+@Slf4j
+public class InternalEventController {
+
+    public static final String TOKEN_HEADER = "X-Internal-Events-Token";
+
+    private static final Pattern PRODUCT_PATH = Pattern.compile("/api/products/\\d+");
+
+    private final ResponseCacheStore responseCacheStore;
+    private final byte[] secret;
+
+    public InternalEventController(ResponseCacheStore responseCacheStore,
+            @Value("${internal.events.secret:}") String secret) {
+        this.responseCacheStore = responseCacheStore;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Invalide la fiche du produit concerné et toutes les listes (pages, recherches)
+     * susceptibles de le contenir.
+     */
+    @PostMapping("/products")
+    public Mono<ResponseEntity<Void>> onProductChanged(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestBody ProductChangedEvent event) {
+        if (!isAuthorized(token)) {
+            log.warn("Événement produit refusé: secret interne absent ou invalide");
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+
+        log.debug("Événement {} reçu pour le produit {}", event.getType(), event.getProductId());
+        String productPath = "/api/products/" + event.getProductId();
+        responseCacheStore.invalidateIf(key -> key.path().equals(productPath)
+                || (key.path().startsWith("/api/products") && !PRODUCT_PATH.matcher(key.path()).matches()));
+        return Mono.just(ResponseEntity.noContent().build());
+    }
+
+    private boolean isAuthorized(String token) {
+        return secret.length > 0 && token != null
+                && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
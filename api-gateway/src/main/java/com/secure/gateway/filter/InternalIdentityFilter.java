@@ -0,0 +1,60 @@
+package com.secure.gateway.filter;
+
+import com.secure.common.security.InternalIdentity;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Transmet aux services l'identité de l'utilisateur authentifié dans l'en-tête signé
+ * {@link InternalIdentity#HEADER}, pour qu'ils n'aient pas à revérifier le JWT.
+ * Un en-tête d'identité fourni par le client est toujours retiré ; sans secret
+ * configuré, le filtre se limite à ce nettoyage.
+ */
+public class InternalIdentityFilter implements GlobalFilter {
+
+    private final byte[] secret;
+    private final Duration ttl;
+
+    public InternalIdentityFilter(byte[] secret, Duration ttl) {
+        this.secret = secret;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpRequest stripped = request.getHeaders().containsKey(InternalIdentity.HEADER)
+                ? request.mutate().headers(headers -> headers.remove(InternalIdentity.HEADER)).build()
+                : request;
+        if (secret.length == 0) {
+            return chain.filter(stripped == request ? exchange : exchange.mutate().request(stripped).build());
+        }
+
+        return exchange.getPrincipal()
+                .ofType(JwtAuthenticationToken.class)
+                .map(authentication -> request.mutate()
+                        .headers(headers -> headers.set(InternalIdentity.HEADER, sign(authentication.getToken())))
+                        .build())
+                .defaultIfEmpty(stripped)
+                .flatMap(identified -> chain.filter(exchange.mutate().request(identified).build()));
+    }
+
+    /**
+     * L'identité expire peu après son émission, et jamais après le JWT dont elle provient.
+     */
+    private String sign(Jwt jwt) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        return InternalIdentity.from(jwt.getClaims(), expiresAt).sign(secret);
+    }
+}
@@ -0,0 +1,115 @@
+package com.secure.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Traçabilité des requêtes à faible coût.
+ * Chaque requête reçoit un identifiant (repris de l'en-tête {@value #REQUEST_ID_HEADER}
+ * s'il est valide) propagé aux services et renvoyé au client. La latence est
+ * enregistrée par route dans le timer {@code gateway.route.requests}, gardé par
+ * combinaison de tags pour ne pas repasser par le registre à chaque requête. Seules les
+ * requêtes lentes, en erreur ou échantillonnées sont journalisées.
+ */
+@Slf4j
+public class RequestTracingFilter implements GlobalFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private record TimerKey(String route, String method, String status) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public RequestTracingFilter(MeterRegistry meterRegistry, double sampleRate, Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startTime = System.nanoTime();
+        String requestId = requestId(exchange.getRequest());
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .header(REQUEST_ID_HEADER, requestId)
+                .build();
+        exchange.getResponse().getHeaders().set(REQUEST_ID_HEADER, requestId);
+        ServerWebExchange tracedExchange = exchange.mutate().request(request).build();
+
+        return chain.filter(tracedExchange)
+                .doFinally(signal -> complete(tracedExchange, requestId, signal, System.nanoTime() - startTime));
+    }
+
+    private void complete(ServerWebExchange exchange, String requestId, SignalType signal, long durationNanos) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean failed = signal == SignalType.ON_ERROR || status == null || status.is5xxServerError();
+        String statusTag = signal == SignalType.CANCEL ? "CANCELLED"
+                : status == null ? "UNKNOWN" : String.valueOf(status.value());
+
+        timers.computeIfAbsent(new TimerKey(routeId(exchange), exchange.getRequest().getMethod().name(), statusTag),
+                        this::timer)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        boolean slow = durationNanos >= slowThresholdNanos;
+        if (failed || slow) {
+            log.warn("[{}] {} {} -> {} en {}ms{}", requestId, exchange.getRequest().getMethod(),
+                    exchange.getRequest().getURI().getPath(), statusTag,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos), failed ? " (échec)" : " (lente)");
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("[{}] {} {} -> {} en {}ms", requestId, exchange.getRequest().getMethod(),
+                    exchange.getRequest().getURI().getPath(), statusTag,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    private Timer timer(TimerKey key) {
+        return Timer.builder("gateway.route.requests")
+                .description("Latence des requêtes traitées par le gateway, par route")
+                .tag("route", key.route())
+                .tag("method", key.method())
+                .tag("status", key.status())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reprend l'identifiant fourni par l'appelant s'il est sûr, sinon en génère un.
+     * ThreadLocalRandom évite la contention du SecureRandom partagé de UUID.randomUUID().
+     */
+    private static String requestId(ServerHttpRequest request) {
+        String incoming = request.getHeaders().getFirst(REQUEST_ID_HEADER);
+        if (incoming != null && VALID_REQUEST_ID.matcher(incoming).matches()) {
+            return incoming;
+        }
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+}
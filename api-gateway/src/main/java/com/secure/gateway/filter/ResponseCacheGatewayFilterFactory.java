@@ -0,0 +1,262 @@
+package com.secure.gateway.filter;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache de réponses des GET d'une route, déclaré dans {@code application.yml} :
+ * <pre>
+ * - name: ResponseCache
+ *   args:
+ *     ttl: 30s
+ *     paths: "/api/products,/api/products/{id}"
+ * </pre>
+ * Les réponses sont partagées entre les utilisateurs ayant les mêmes rôles. Le TTL
+ * configuré est un plafond : {@code s-maxage} ou {@code max-age} de la réponse le
+ * réduisent, {@code no-store} et {@code private} l'interdisent. Côté requête,
+ * {@code no-cache} force l'appel au service et {@code no-store} désactive le cache.
+ */
+@Slf4j
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /** En-têtes propres à un échange, jamais rejoués depuis le cache. */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT),
+            HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+            RequestTracingFilter.REQUEST_ID_HEADER.toLowerCase(Locale.ROOT));
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        long maxEntryBytes = config.getMaxEntrySize().toBytes();
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || !matches(patterns, request)) {
+                return chain.filter(exchange);
+            }
+            List<String> requestDirectives = directives(request.getHeaders());
+            if (requestDirectives.contains("no-store")) {
+                return chain.filter(exchange);
+            }
+
+            return ReactiveSecurityContextHolder.getContext()
+                    .map(SecurityContext::getAuthentication)
+                    .map(ResponseCacheGatewayFilterFactory::roles)
+                    .defaultIfEmpty("anonymous")
+                    .flatMap(roles -> {
+                        ResponseCacheStore.Key key = new ResponseCacheStore.Key(roles,
+                                request.getPath().value(), request.getURI().getRawQuery());
+                        if (!requestDirectives.contains("no-cache")) {
+                            ResponseCacheStore.CachedResponse cached = store.get(key);
+                            if (cached != null) {
+                                return writeCached(exchange.getResponse(), cached);
+                            }
+                        }
+                        exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                        // Relevée avant l'appel au service : une invalidation reçue pendant
+                        // la requête empêche de conserver la réponse
+                        long generation = store.generation();
+                        ServerHttpResponse recording = recordingResponse(exchange.getResponse(), key,
+                                generation, config.getTtl(), maxEntryBytes);
+                        return chain.filter(exchange.mutate().response(recording).build());
+                    });
+        };
+    }
+
+    private static boolean matches(List<PathPattern> patterns, ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String roles(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private static Mono<Void> writeCached(ServerHttpResponse response, ResponseCacheStore.CachedResponse cached) {
+        response.setStatusCode(cached.status());
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.setContentLength(cached.body().length);
+        headers.set(HttpHeaders.AGE, String.valueOf(
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.storedAtNanos())));
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Décore la réponse pour conserver une copie du corps lorsqu'elle est cacheable.
+     * Le corps est retenu jusqu'à {@code maxEntryBytes}, puis transmis au client et stocké.
+     * Une réponse annoncée plus grande ({@code Content-Length}) n'est pas retenue ; une
+     * réponse qui dépasse la limite en cours de route est transmise telle quelle, les
+     * fragments déjà retenus en tête, sans être mise en cache. Elle n'est pas non plus
+     * conservée si le cache a été invalidé depuis {@code generation}.
+     */
+    private ServerHttpResponse recordingResponse(ServerHttpResponse response, ResponseCacheStore.Key key,
+            long generation, Duration maxTtl, long maxEntryBytes) {
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Duration ttl = cacheTtl(getStatusCode(), getHeaders(), maxTtl);
+                if (ttl == null || getHeaders().getContentLength() > maxEntryBytes) {
+                    return super.writeWith(body);
+                }
+                AtomicLong received = new AtomicLong();
+                return Flux.<DataBuffer>from(body)
+                        // Un premier lot s'arrête avant le fragment qui dépasse la limite
+                        .bufferUntil(buffer -> received.addAndGet(buffer.readableByteCount()) > maxEntryBytes, true)
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        .switchOnFirst((first, batches) -> {
+                            if (received.get() > maxEntryBytes || first.hasError()) {
+                                return super.writeWith(batches.concatMapIterable(batch -> batch));
+                            }
+                            byte[] bytes = first.hasValue() ? read(first.get()) : new byte[0];
+                            if (store.put(key, new ResponseCacheStore.CachedResponse(getStatusCode(),
+                                    replayableHeaders(getHeaders()), bytes, ttl, System.nanoTime()), generation)) {
+                                log.debug("Réponse {} mise en cache pour {}", key.path(), ttl);
+                            } else {
+                                log.debug("Réponse {} lue avant une invalidation, non conservée", key.path());
+                            }
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        })
+                        .then();
+            }
+        };
+    }
+
+    private static byte[] read(List<DataBuffer> buffers) {
+        int size = buffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    /**
+     * Durée de conservation d'une réponse, ou null si elle ne doit pas être mise en cache.
+     */
+    private static Duration cacheTtl(HttpStatusCode status, HttpHeaders headers, Duration maxTtl) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        List<String> directives = directives(headers);
+        if (directives.contains("no-store") || directives.contains("private") || directives.contains("no-cache")) {
+            return null;
+        }
+        Long seconds = seconds(directives, "s-maxage=");
+        if (seconds == null) {
+            seconds = seconds(directives, "max-age=");
+        }
+        Duration ttl = seconds == null ? maxTtl : Duration.ofSeconds(Math.min(seconds, maxTtl.toSeconds()));
+        return ttl.isZero() || ttl.isNegative() ? null : ttl;
+    }
+
+    private static List<String> directives(HttpHeaders headers) {
+        List<String> directives = new ArrayList<>();
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                directives.add(directive.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return directives;
+    }
+
+    private static Long seconds(List<String> directives, String prefix) {
+        for (String directive : directives) {
+            if (directive.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(directive.substring(prefix.length()));
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static HttpHeaders replayableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (!EXCLUDED_HEADERS.contains(lowerName) && !lowerName.startsWith("access-control-")
+                    && !lowerName.equals(CACHE_STATUS_HEADER.toLowerCase(Locale.ROOT))) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    @Data
+    public static class Config {
+        /** Durée maximale de conservation d'une réponse. */
+        private Duration ttl = Duration.ofSeconds(30);
+        /** Motifs des chemins mis en cache ({@code /api/products/{id}}...). */
+        private List<String> paths = new ArrayList<>();
+        /** Réponses plus volumineuses transmises sans être mises en cache. */
+        private DataSize maxEntrySize = DataSize.ofKilobytes(512);
+    }
+}
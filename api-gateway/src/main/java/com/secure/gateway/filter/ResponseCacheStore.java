@@ -0,0 +1,113 @@
+package com.secure.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Stockage borné des réponses mises en cache par le gateway.
+ * La taille est exprimée en octets (corps des réponses) et chaque entrée expire
+ * selon son propre TTL. Les statistiques sont publiées sous le cache
+ * {@value #CACHE_NAME} (métriques {@code cache.gets}, {@code cache.evictions}...).
+ * Une réponse lue avant une invalidation n'est pas gardée en cache : le filtre relève
+ * la {@link #generation()} avant de transmettre la requête et la passe à
+ * {@link #put(Key, CachedResponse, long)}.
+ */
+public class ResponseCacheStore {
+
+    public static final String CACHE_NAME = "gateway-responses";
+
+    /**
+     * Clé d'une réponse : les rôles de l'appelant, le chemin et la chaîne de requête.
+     */
+    public record Key(String roles, String path, String query) {
+    }
+
+    public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+            Duration ttl, long storedAtNanos) {
+    }
+
+    private final Cache<Key, CachedResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCacheStore(DataSize maximumSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Key key, CachedResponse response) -> response.body().length)
+                .expireAfter(new Expiry<Key, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(Key key, CachedResponse response, long currentTime) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, CachedResponse response, long currentTime,
+                            long currentDuration) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, CachedResponse response, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CachedResponse get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Génération courante du cache, incrémentée à chaque invalidation.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Met une réponse en cache, sauf si une invalidation a eu lieu depuis
+     * {@code requestGeneration}. La génération est relue après l'écriture : une
+     * invalidation concurrente, qui l'incrémente avant de vider ses entrées, ne peut
+     * pas être suivie d'une réponse périmée.
+     *
+     * @param requestGeneration génération relevée avant la transmission de la requête
+     * @return faux si la réponse n'a pas été conservée
+     */
+    public boolean put(Key key, CachedResponse response, long requestGeneration) {
+        if (generation.get() != requestGeneration) {
+            return false;
+        }
+        cache.put(key, response);
+        if (generation.get() != requestGeneration) {
+            cache.asMap().remove(key, response);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retire toutes les réponses dont la clé satisfait le prédicat.
+     */
+    public void invalidateIf(Predicate<Key> predicate) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(predicate);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
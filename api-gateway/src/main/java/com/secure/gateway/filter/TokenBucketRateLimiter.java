@@ -0,0 +1,122 @@
+package com.secure.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur de débit en mémoire (seau à jetons), utilisable par le filtre
+ * {@code RequestRateLimiter} sans Redis.
+ * <p>
+ * L'état d'une clé tient dans un seul {@link AtomicLong} mis à jour par CAS
+ * (algorithme GCRA, équivalent au seau à jetons) : aucun verrou n'est pris. Une clé
+ * inactive est oubliée après {@code idleTimeout} ; tant que ce délai dépasse le temps
+ * de remplissage complet du seau, l'oubli est sans effet sur les quotas.
+ * Les quotas se déclarent par route :
+ * <pre>
+ * - name: RequestRateLimiter
+ *   args:
+ *     rate-limiter: "#{@tokenBucketRateLimiter}"
+ *     token-bucket-rate-limiter.capacity: 40
+ *     token-bucket-rate-limiter.replenish-rate: 20
+ * </pre>
+ */
+public class TokenBucketRateLimiter extends AbstractRateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "token-bucket-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+
+    private final Config defaultConfig;
+    private final Cache<String, AtomicLong> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+            Config defaultConfig, Duration idleTimeout, long maximumKeys) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = defaultConfig;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maximumKeys)
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        AtomicLong bucket = buckets.get(routeId + ':' + id, key -> new AtomicLong(Long.MIN_VALUE));
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.getReplenishRate();
+        long cost = interval * config.getRequestedTokens();
+        long burst = interval * config.getCapacity();
+
+        // Le seau stocke l'instant théorique où il sera de nouveau plein
+        while (true) {
+            long now = System.nanoTime();
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + cost;
+            long allowedFrom = newFullAt - burst;
+            if (allowedFrom > now) {
+                rejected(routeId).increment();
+                return Mono.just(new Response(false, headers(config, 0, allowedFrom - now)));
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                long remaining = (burst - (newFullAt - now)) / interval;
+                return Mono.just(new Response(true, headers(config, remaining, 0)));
+            }
+        }
+    }
+
+    private Counter rejected(String routeId) {
+        return rejections.computeIfAbsent(routeId, route -> Counter.builder("gateway.ratelimit.rejected")
+                .description("Requêtes refusées par le limiteur de débit, par route")
+                .tag("route", route)
+                .register(meterRegistry));
+    }
+
+    private static Map<String, String> headers(Config config, long remaining, long retryAfterNanos) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getCapacity()));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        if (retryAfterNanos > 0) {
+            // Retry-After s'exprime en secondes entières, arrondies au supérieur
+            long seconds = (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        }
+        return headers;
+    }
+
+    @Data
+    @Validated
+    public static class Config {
+        /** Nombre maximal de requêtes acceptées en rafale. */
+        @Min(1)
+        private int capacity = 40;
+        /** Jetons rendus par seconde. */
+        @Min(1)
+        private int replenishRate = 20;
+        /** Jetons consommés par requête. */
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# ==========================================
+# Micro-benchmarks JMH
+# ==========================================
+# Installe le module partagé et les jars des services, construit benchmarks.jar et lance JMH.
+# Les résultats sont écrits en JSON dans benchmarks/results/ pour comparer les exécutions.
+#
+# Usage : ./benchmarks/run.sh [options JMH]     ex. ./benchmarks/run.sh GatewayFilterBenchmark -f 2
+
+set -euo pipefail
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS_DIR="${ROOT_DIR}/benchmarks/results"
+
+for service in service-commons product-service order-service api-gateway; do
+    mvn -B -q -f "${ROOT_DIR}/${service}/pom.xml" install -DskipTests
+done
+mvn -B -q -f "${ROOT_DIR}/benchmarks/pom.xml" package
+
+mkdir -p "${RESULTS_DIR}"
+RESULT_FILE="${RESULTS_DIR}/jmh-$(date +%Y%m%d-%H%M%S).json"
+
+java -jar "${ROOT_DIR}/benchmarks/target/benchmarks.jar" -rf json -rff "${RESULT_FILE}" "$@"
+
+echo "Résultats: ${RESULT_FILE}"
@@ -0,0 +1,57 @@
+package com.secure.benchmarks;
+
+import com.secure.order.config.SecurityConfig.KeycloakGrantedAuthoritiesConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des rôles Keycloak d'un JWT en autorités Spring Security, exécutée à
+ * chaque requête authentifiée (implémentation identique dans les trois services).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthoritiesConverterBenchmark {
+
+    private KeycloakGrantedAuthoritiesConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = new KeycloakGrantedAuthoritiesConverter();
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("0b6d3c4e-8f1a-4d2b-9c7e-2a5f6b8d9e01")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .claim("preferred_username", "client1")
+                .claim("realm_access", Map.of("roles",
+                        List.of("CLIENT", "offline_access", "uma_authorization", "default-roles-secure-microservices")))
+                .build();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+}
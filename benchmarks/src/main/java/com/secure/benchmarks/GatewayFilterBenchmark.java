@@ -0,0 +1,93 @@
+package com.secure.benchmarks;
+
+import com.secure.benchmarks.support.LegacyLoggingFilter;
+import com.secure.gateway.filter.RequestTracingFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête du filtre global de traçabilité du gateway, seul puis avec
+ * plusieurs threads en concurrence (générateur d'identifiants, timers, appender).
+ * Les mesures {@code loggingFilter*} portent sur l'ancien filtre de logging
+ * ({@link LegacyLoggingFilter}) et servent de référence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayFilterBenchmark {
+
+    private GlobalFilter loggingFilter;
+    private GlobalFilter tracingFilter;
+    private GatewayFilterChain chain;
+    private Route route;
+
+    @Setup
+    public void setUp() {
+        loggingFilter = new LegacyLoggingFilter();
+        tracingFilter = new RequestTracingFilter(new SimpleMeterRegistry(), 0.01, Duration.ofSeconds(1));
+        route = Route.async()
+                .id("product-service")
+                .uri(URI.create("http://localhost:8081"))
+                .predicate(exchange -> true)
+                .build();
+        chain = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+
+    @Benchmark
+    public Void loggingFilter() {
+        return loggingFilter.filter(newExchange(), chain).block();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Void loggingFilterContended() {
+        return loggingFilter.filter(newExchange(), chain).block();
+    }
+
+    @Benchmark
+    public Void tracingFilter() {
+        return tracingFilter.filter(newExchange(), chain).block();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Void tracingFilterContended() {
+        return tracingFilter.filter(newExchange(), chain).block();
+    }
+
+    private MockServerWebExchange newExchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/42")
+                .remoteAddress(new InetSocketAddress("10.0.0.12", 52814)));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,96 @@
+package com.secure.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.order.client.ProductDTO;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderItem;
+import com.secure.order.entity.OrderStatus;
+import com.secure.product.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON des objets échangés par les API, avec un ObjectMapper
+ * configuré comme celui de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Order order;
+    private Product product;
+    private ProductDTO productDto;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+
+        order = new Order();
+        order.setId(1L);
+        order.setUserId("0b6d3c4e-8f1a-4d2b-9c7e-2a5f6b8d9e01");
+        order.setUsername("client1");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setOrderDate(now);
+        order.setUpdatedAt(now);
+        for (int i = 0; i < 5; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i);
+            item.setProductId((long) i);
+            item.setProductName("Produit " + i);
+            item.setQuantity(2);
+            item.setPrice(new BigDecimal("49.90"));
+            order.addItem(item);
+        }
+        order.calculateTotalAmount();
+
+        product = Product.builder()
+                .id(1L)
+                .name("Clavier mécanique")
+                .description("Clavier rétroéclairé, switches tactiles")
+                .price(new BigDecimal("89.99"))
+                .stockQuantity(120)
+                .createdAt(now)
+                .updatedAt(now)
+                .createdBy("admin")
+                .version(3L)
+                .build();
+
+        productDto = new ProductDTO(1L, "Clavier mécanique", "Clavier rétroéclairé, switches tactiles",
+                new BigDecimal("89.99"), 120);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productDto);
+    }
+}
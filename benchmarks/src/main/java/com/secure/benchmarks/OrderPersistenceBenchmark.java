@@ -0,0 +1,116 @@
+package com.secure.benchmarks;
+
+import com.secure.benchmarks.support.RoundTripCountingDataSource;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderItem;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrement d'une commande et de ses lignes avec Hibernate (H2 en mémoire).
+ * {@code ids=identity} reprend les anciens identifiants IDENTITY ({@code identity-ids.orm.xml}) :
+ * un INSERT par ligne, sans lot possible ; {@code ids=pooled} correspond à la configuration
+ * des services (séquences pooled et INSERT groupés par 50). Les compteurs {@code roundTrips}
+ * et {@code orders} donnent les allers-retours vers la base par commande.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+
+    @Param({"identity", "pooled"})
+    private String ids;
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private SingleConnectionDataSource connection;
+    private RoundTripCountingDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    /**
+     * Allers-retours vers la base et commandes enregistrées pendant l'itération.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long roundTrips;
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            roundTrips = 0;
+            orders = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        connection = new SingleConnectionDataSource(
+                "jdbc:h2:mem:orders-" + ids + "-" + itemCount + ";DB_CLOSE_DELAY=-1", true);
+        dataSource = new RoundTripCountingDataSource(connection);
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none");
+        if (ids.equals("identity")) {
+            configuration.addResource("identity-ids.orm.xml");
+        } else {
+            configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+        }
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        connection.destroy();
+    }
+
+    @Benchmark
+    public Long saveOrder(RoundTrips counters) {
+        Order order = new Order();
+        order.setUserId("user-1");
+        order.setUsername("client");
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId((long) i);
+            item.setProductName("Produit " + i);
+            item.setQuantity(1 + i % 5);
+            item.setPrice(new BigDecimal("19.99"));
+            order.addItem(item);
+        }
+        order.calculateTotalAmount();
+        long before = dataSource.roundTrips();
+        sessionFactory.inTransaction(session -> session.persist(order));
+        counters.roundTrips += dataSource.roundTrips() - before;
+        counters.orders++;
+        return order.getId();
+    }
+}
@@ -0,0 +1,20 @@
+package com.secure.benchmarks.support;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+import java.io.OutputStream;
+
+/**
+ * Appender Logback qui formate et encode les événements comme un appender console,
+ * verrou compris, mais jette le résultat : les benchmarks mesurent le coût du
+ * logging sans saturer la sortie de JMH.
+ */
+public class DiscardingAppender extends OutputStreamAppender<ILoggingEvent> {
+
+    @Override
+    public void start() {
+        setOutputStream(OutputStream.nullOutputStream());
+        super.start();
+    }
+}
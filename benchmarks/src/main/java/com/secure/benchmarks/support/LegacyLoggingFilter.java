@@ -0,0 +1,44 @@
+package com.secure.benchmarks.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Copie du filtre global de logging retiré du gateway ({@code GatewayConfig.loggingFilter}),
+ * conservée comme référence : les mesures {@code loggingFilter*} restent comparables aux
+ * premières exécutions du module.
+ */
+public class LegacyLoggingFilter implements GlobalFilter {
+
+    private static final Logger log = LoggerFactory.getLogger("com.secure.gateway.config.GatewayConfig");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestId = UUID.randomUUID().toString().substring(0, 8);
+
+        long startTime = System.currentTimeMillis();
+
+        log.info("[{}] Requête entrante: {} {} depuis {}",
+                requestId,
+                request.getMethod(),
+                request.getURI().getPath(),
+                request.getRemoteAddress());
+
+        return chain.filter(exchange)
+                .then(Mono.fromRunnable(() -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    log.info("[{}] Réponse: {} - Durée: {}ms",
+                            requestId,
+                            exchange.getResponse().getStatusCode(),
+                            duration);
+                }));
+    }
+}
@@ -0,0 +1,88 @@
+package com.secure.benchmarks.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource qui compte les allers-retours vers la base : chaque exécution de requête
+ * ({@code execute*}), chaque lot JDBC ({@code executeBatch}, un seul échange avec le pilote
+ * PostgreSQL) et chaque commit ou rollback. Contrairement au nombre de requêtes préparées
+ * des statistiques Hibernate, un lot de 50 INSERT compte pour un aller-retour.
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> CONNECTION_ROUND_TRIPS = Set.of("commit", "rollback");
+
+    private final LongAdder roundTrips = new LongAdder();
+
+    public RoundTripCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    public long roundTrips() {
+        return roundTrips.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) -> {
+            if (CONNECTION_ROUND_TRIPS.contains(method.getName())) {
+                roundTrips.increment();
+            }
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, this::countExecution);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, this::countExecution);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, this::countExecution);
+            }
+            return result;
+        });
+    }
+
+    private Object countExecution(Method method, Object result) {
+        if (method.getName().startsWith("execute")) {
+            roundTrips.increment();
+        }
+        return result;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return interceptor.afterInvocation(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object afterInvocation(Method method, Object result);
+    }
+}
@@ -1,7 +1,9 @@
 import { useState } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
-import { productApi, orderApi } from '../services/api';
+import { useMutation, useQueryClient } from '@tanstack/react-query';
+import { orderApi } from '../services/api';
+import { useProductPages } from '../hooks/useProductPages';
+import LoadMoreButton from './LoadMoreButton';
 
 /**
  * Page de création de commande pour les clients.
@@ -12,13 +14,7 @@ function CreateOrder() {
     const [cart, setCart] = useState([]);
     const [error, setError] = useState(null);
 
-    const { data: products, isLoading: loadingProducts } = useQuery({
-        queryKey: ['products'],
-        queryFn: async () => {
-            const response = await productApi.getAll();
-            return response.data;
-        }
-    });
+    const { products, isLoading: loadingProducts, hasMore, isLoadingMore, loadMore } = useProductPages();
 
     const createOrderMutation = useMutation({
         mutationFn: orderApi.create,
@@ -146,6 +142,7 @@ function CreateOrder() {
                         ))}
                     </div>
                 )}
+                <LoadMoreButton hasMore={hasMore} isLoadingMore={isLoadingMore} onLoadMore={loadMore} />
             </div>
 
             {/* Panier */}
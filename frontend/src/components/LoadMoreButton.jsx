@@ -0,0 +1,18 @@
+/**
+ * Bouton de chargement de la page suivante d'une liste paginée.
+ */
+function LoadMoreButton({ hasMore, isLoadingMore, onLoadMore, label = 'Afficher plus de produits' }) {
+    if (!hasMore) {
+        return null;
+    }
+
+    return (
+        <div style={{ textAlign: 'center', marginTop: '1.5rem' }}>
+            <button className="btn btn-secondary" onClick={() => onLoadMore()} disabled={isLoadingMore}>
+                {isLoadingMore ? 'Chargement...' : label}
+            </button>
+        </div>
+    );
+}
+
+export default LoadMoreButton;
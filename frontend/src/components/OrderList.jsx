@@ -1,21 +1,18 @@
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import { useMutation, useQueryClient } from '@tanstack/react-query';
 import { orderApi } from '../services/api';
 import { useAuth } from '../context/AuthContext';
+import { useOrderPages } from '../hooks/useOrderPages';
+import LoadMoreButton from './LoadMoreButton';
 
 /**
- * Liste des commandes (propres commandes pour CLIENT, toutes pour ADMIN).
+ * Liste des commandes (propres commandes pour CLIENT, toutes pour ADMIN),
+ * chargée page par page.
  */
 function OrderList() {
     const { isAdmin } = useAuth();
     const queryClient = useQueryClient();
 
-    const { data: orders, isLoading, error } = useQuery({
-        queryKey: ['orders', isAdmin() ? 'all' : 'my'],
-        queryFn: async () => {
-            const response = isAdmin() ? await orderApi.getAll() : await orderApi.getMyOrders();
-            return response.data;
-        }
-    });
+    const { orders, isLoading, error, hasMore, isLoadingMore, loadMore } = useOrderPages(isAdmin());
 
     const updateStatusMutation = useMutation({
         mutationFn: ({ id, status }) => orderApi.updateStatus(id, status),
@@ -82,7 +79,7 @@ function OrderList() {
             <div className="card" style={{ marginBottom: '1.5rem' }}>
                 <div className="card-header">
                     <h2 className="card-title">📋 {isAdmin() ? 'Toutes les Commandes' : 'Mes Commandes'}</h2>
-                    <span style={{ color: 'var(--gray-600)' }}>{orders?.length || 0} commande(s)</span>
+                    <span style={{ color: 'var(--gray-600)' }}>{orders?.length || 0} commande(s) affichée(s)</span>
                 </div>
             </div>
 
@@ -166,6 +163,9 @@ function OrderList() {
                     </div>
                 </div>
             )}
+
+            <LoadMoreButton hasMore={hasMore} isLoadingMore={isLoadingMore} onLoadMore={loadMore}
+                label="Afficher plus de commandes" />
         </div>
     );
 }
@@ -3,6 +3,8 @@ import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { useNavigate } from 'react-router-dom';
 import { productApi } from '../services/api';
 import { useAuth } from '../context/AuthContext';
+import { useProductPages } from '../hooks/useProductPages';
+import LoadMoreButton from './LoadMoreButton';
 
 /**
  * Catalogue de produits avec actions CRUD pour les admins.
@@ -13,12 +15,18 @@ function ProductCatalog() {
     const queryClient = useQueryClient();
     const [searchTerm, setSearchTerm] = useState('');
 
-    const { data: products, isLoading, error } = useQuery({
-        queryKey: ['products'],
+    const { products, isLoading, error, hasMore, isLoadingMore, loadMore } = useProductPages();
+
+    // Recherche côté serveur (index plein texte) pendant la saisie
+    const trimmedSearch = searchTerm.trim();
+    const { data: searchResults } = useQuery({
+        queryKey: ['products', 'search', trimmedSearch],
         queryFn: async () => {
-            const response = await productApi.getAll();
+            const response = await productApi.search(trimmedSearch, true, 50);
             return response.data;
-        }
+        },
+        enabled: trimmedSearch.length > 0,
+        placeholderData: (previous) => previous
     });
 
     const deleteMutation = useMutation({
@@ -40,10 +48,7 @@ function ProductCatalog() {
         return { class: 'in-stock', text: 'En stock' };
     };
 
-    const filteredProducts = products?.filter(product =>
-        product.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        product.description?.toLowerCase().includes(searchTerm.toLowerCase())
-    );
+    const filteredProducts = trimmedSearch ? searchResults : products;
 
     if (isLoading) {
         return <div className="loading"><div className="spinner"></div></div>;
@@ -72,7 +77,7 @@ function ProductCatalog() {
                     />
                 </div>
                 <p>
-                    {filteredProducts?.length || 0} produit(s) trouvé(s)
+                    {filteredProducts?.length || 0} produit(s) {trimmedSearch ? 'trouvé(s)' : 'affiché(s)'}
                 </p>
             </div>
 
@@ -116,6 +121,10 @@ function ProductCatalog() {
                 })}
             </div>
 
+            {!trimmedSearch && (
+                <LoadMoreButton hasMore={hasMore} isLoadingMore={isLoadingMore} onLoadMore={loadMore} />
+            )}
+
             {filteredProducts?.length === 0 && (
                 <div className="card" style={{ textAlign: 'center', padding: '3rem' }}>
                     <p style={{ color: 'var(--gray-500)' }}>Aucun produit trouvé</p>
@@ -0,0 +1,31 @@
+import { useInfiniteQuery } from '@tanstack/react-query';
+import { orderApi } from '../services/api';
+
+const PAGE_SIZE = 20;
+
+/**
+ * Historique des commandes chargé page par page, des plus récentes aux plus
+ * anciennes : toutes les commandes (all) pour ADMIN, les siennes sinon.
+ */
+export function useOrderPages(all) {
+    const query = useInfiniteQuery({
+        queryKey: ['orders', all ? 'all' : 'my', 'pages'],
+        queryFn: async ({ pageParam }) => {
+            const response = all
+                ? await orderApi.getPage(pageParam, PAGE_SIZE)
+                : await orderApi.getMyPage(pageParam, PAGE_SIZE);
+            return response.data;
+        },
+        initialPageParam: null,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined
+    });
+
+    return {
+        orders: query.data?.pages.flatMap((page) => page.items),
+        isLoading: query.isLoading,
+        error: query.error,
+        hasMore: query.hasNextPage,
+        isLoadingMore: query.isFetchingNextPage,
+        loadMore: query.fetchNextPage
+    };
+}
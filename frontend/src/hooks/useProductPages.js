@@ -0,0 +1,29 @@
+import { useInfiniteQuery } from '@tanstack/react-query';
+import { productApi } from '../services/api';
+
+const PAGE_SIZE = 50;
+
+/**
+ * Catalogue chargé page par page (curseur sur l'id) : seule la première page est
+ * demandée à l'affichage, les suivantes à la demande (loadMore).
+ */
+export function useProductPages() {
+    const query = useInfiniteQuery({
+        queryKey: ['products', 'pages'],
+        queryFn: async ({ pageParam }) => {
+            const response = await productApi.getPage(pageParam, PAGE_SIZE);
+            return response.data;
+        },
+        initialPageParam: null,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined
+    });
+
+    return {
+        products: query.data?.pages.flatMap((page) => page.items),
+        isLoading: query.isLoading,
+        error: query.error,
+        hasMore: query.hasNextPage,
+        isLoadingMore: query.isFetchingNextPage,
+        loadMore: query.fetchNextPage
+    };
+}
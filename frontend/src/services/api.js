@@ -57,18 +57,21 @@ api.interceptors.response.use(
 
 // API Products
 export const productApi = {
-    getAll: () => api.get('/api/products'),
+    // Page du catalogue (curseur sur l'id) ; nextCursor vaut null sur la dernière page
+    getPage: (after, size) => api.get('/api/products', { params: { after, size } }),
     getById: (id) => api.get(`/api/products/${id}`),
     create: (product) => api.post('/api/products', product),
     update: (id, product) => api.put(`/api/products/${id}`, product),
     delete: (id) => api.delete(`/api/products/${id}`),
-    search: (name) => api.get('/api/products/search', { params: { name } })
+    // Recherche plein texte classée par pertinence ; prefix pour l'autocomplétion
+    search: (q, prefix = false, limit) => api.get('/api/products/search', { params: { q, prefix, limit } })
 };
 
 // API Orders
 export const orderApi = {
-    getAll: () => api.get('/api/orders'),
-    getMyOrders: () => api.get('/api/orders/my'),
+    // Pages de l'historique (plus récentes d'abord) ; nextCursor vaut null sur la dernière page
+    getPage: (cursor, size) => api.get('/api/orders', { params: { cursor, size } }),
+    getMyPage: (cursor, size) => api.get('/api/orders/my', { params: { cursor, size } }),
     getById: (id) => api.get(`/api/orders/${id}`),
     create: (order) => api.post('/api/orders', order),
     updateStatus: (id, status) => api.patch(`/api/orders/${id}/status`, { status }),
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# ==========================================
+# Compare le débit de POST /api/orders entre threads de plateforme
+# et threads virtuels (VIRTUAL_THREADS_ENABLED).
+# ==========================================
+# Prérequis : docker compose, k6, jq et des produits avec un stock suffisant
+# (PRODUCT_IDS, sinon les premiers produits en stock du catalogue ; tirage fixé par SEED).
+# Les résumés k6 sont écrits dans load-tests/results/.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RESULTS_DIR=load-tests/results
+mkdir -p "$RESULTS_DIR"
+
+wait_healthy() {
+    local service=$1
+    for _ in $(seq 1 60); do
+        if [ "$(docker inspect -f '{{.State.Health.Status}}' "$service" 2>/dev/null)" = "healthy" ]; then
+            return 0
+        fi
+        sleep 5
+    done
+    echo "Le service $service n'est pas devenu disponible" >&2
+    exit 1
+}
+
+for mode in false true; do
+    echo "==> VIRTUAL_THREADS_ENABLED=$mode"
+    VIRTUAL_THREADS_ENABLED=$mode docker compose up -d --force-recreate product-service order-service
+    wait_healthy product-service
+    wait_healthy order-service
+
+    k6 run --quiet --summary-export "$RESULTS_DIR/virtual-threads-$mode.json" load-tests/create-order.js
+done
+
+printf '\n%-20s %12s %12s %12s\n' "Mode" "req/s" "p95 (ms)" "échecs"
+for mode in false true; do
+    summary="$RESULTS_DIR/virtual-threads-$mode.json"
+    label=$([ "$mode" = "true" ] && echo "threads virtuels" || echo "plateforme")
+    printf '%-20s %12.1f %12.1f %12.4f\n' "$label" \
+        "$(jq '.metrics.http_reqs.rate' "$summary")" \
+        "$(jq '.metrics.http_req_duration["p(95)"]' "$summary")" \
+        "$(jq '.metrics.http_req_failed.value' "$summary")"
+done
@@ -0,0 +1,81 @@
+// ==========================================
+// Test de charge k6 - POST /api/orders
+// ==========================================
+// Usage : k6 run -e BASE_URL=http://localhost:8080 load-tests/create-order.js
+//
+// Chaque ligne de commande vise un produit tiré au hasard parmi PRODUCT_IDS (ids séparés
+// par des virgules) ou, à défaut, parmi les PRODUCT_COUNT premiers produits en stock du
+// catalogue. Le tirage est reproductible d'une exécution à l'autre (SEED).
+
+import http from 'k6/http';
+import { check, randomSeed } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const KEYCLOAK_URL = __ENV.KEYCLOAK_URL || 'http://localhost:8180';
+const REALM = __ENV.REALM || 'secure-microservices';
+const PRODUCT_COUNT = Number(__ENV.PRODUCT_COUNT || 50);
+const ITEMS_PER_ORDER = Number(__ENV.ITEMS_PER_ORDER || 1);
+
+// Une suite de tirages propre à chaque VU, identique d'une exécution à l'autre
+randomSeed(Number(__ENV.SEED || 42) + __VU);
+
+export const options = {
+    scenarios: {
+        create_orders: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 200),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// Jeton du client de test, obtenu une seule fois via le client public frontend-app,
+// et produits commandés
+export function setup() {
+    const response = http.post(`${KEYCLOAK_URL}/realms/${REALM}/protocol/openid-connect/token`, {
+        grant_type: 'password',
+        client_id: 'frontend-app',
+        username: __ENV.USERNAME || 'client1',
+        password: __ENV.PASSWORD || 'client123',
+    });
+    check(response, { 'jeton obtenu': (r) => r.status === 200 });
+    const token = response.json('access_token');
+    return { token, productIds: productIds(token) };
+}
+
+function productIds(token) {
+    if (__ENV.PRODUCT_IDS) {
+        return __ENV.PRODUCT_IDS.split(',').map(Number);
+    }
+    const response = http.get(`${BASE_URL}/api/products?size=${PRODUCT_COUNT}`, {
+        headers: { Authorization: `Bearer ${token}` },
+    });
+    check(response, { 'catalogue obtenu': (r) => r.status === 200 });
+    const ids = response.json('items')
+        .filter((product) => product.stockQuantity > 0)
+        .map((product) => product.id);
+    if (ids.length === 0) {
+        throw new Error('Aucun produit en stock à commander');
+    }
+    return ids;
+}
+
+export default function (data) {
+    const items = [];
+    for (let i = 0; i < ITEMS_PER_ORDER; i++) {
+        const productId = data.productIds[Math.floor(Math.random() * data.productIds.length)];
+        items.push({ productId, quantity: 1 });
+    }
+
+    const response = http.post(`${BASE_URL}/api/orders`, JSON.stringify({ items }), {
+        headers: {
+            'Content-Type': 'application/json',
+            Authorization: `Bearer ${data.token}`,
+        },
+    });
+    check(response, { 'commande créée': (r) => r.status === 201 });
+}
@@ -0,0 +1,33 @@
+package com.secure.order.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO représentant un produit et la disponibilité de la quantité demandée,
+ * retourné par l'endpoint groupé du service Produit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAvailabilityDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer requestedQuantity;
+    private boolean available;
+
+    /**
+     * Données produit sans l'information de disponibilité, telles que mises en cache.
+     */
+    public ProductDTO toProduct() {
+        return new ProductDTO(id, name, description, price, stockQuantity);
+    }
+}
@@ -0,0 +1,136 @@
+package com.secure.order.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache local des produits devant {@link ProductServiceClient}.
+ * Borné en taille et en durée de vie, il est invalidé par les événements publiés par le
+ * service Produit. Seuls le nom et le prix y sont fiables : le stock mis en cache n'est
+ * qu'indicatif, la disponibilité est vérifiée par le service Produit à la réservation.
+ * Un chargement commencé avant une invalidation n'est pas gardé en cache : l'appelant
+ * relève la {@link #generation()} avant l'appel au service Produit et la transmet à
+ * {@link #putAll(Collection, long)}.
+ * Les métriques sont exposées sous {@code cache.*} avec le tag {@code cache=products}.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    private final ProductServiceClient productServiceClient;
+    private final Cache<Long, ProductDTO> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCache(ProductServiceClient productServiceClient,
+            MeterRegistry meterRegistry,
+            @Value("${product-service.cache.maximum-size:10000}") long maximumSize,
+            @Value("${product-service.cache.ttl:5m}") Duration ttl) {
+        this.productServiceClient = productServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /**
+     * Récupère un produit depuis le cache, ou depuis le service Produit en cas d'absence.
+     */
+    public Optional<ProductDTO> getProduct(Long productId, String jwtToken) {
+        ProductDTO cached = cache.getIfPresent(productId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedGeneration = generation();
+        Optional<ProductDTO> product = productServiceClient.getProduct(productId, jwtToken);
+        product.ifPresent(p -> put(Map.of(productId, p), loadedGeneration));
+        return product;
+    }
+
+    /**
+     * Récupère les produits des lignes demandées : ceux présents dans le cache sont
+     * servis directement, les autres sont chargés en un seul appel groupé.
+     * Retourne un Optional vide si le service Produit n'a pas pu répondre pour les absents.
+     */
+    public Optional<Map<Long, ProductDTO>> getProducts(List<StockItemRequest> items, String jwtToken) {
+        Map<Long, ProductDTO> products = getCached(items.stream().map(StockItemRequest::getProductId).toList());
+        List<StockItemRequest> missing = items.stream()
+                .filter(item -> !products.containsKey(item.getProductId()))
+                .toList();
+        if (missing.isEmpty()) {
+            return Optional.of(products);
+        }
+
+        long loadedGeneration = generation();
+        return productServiceClient.getProductsAvailability(missing, jwtToken)
+                .map(fetched -> {
+                    products.putAll(putAll(fetched, loadedGeneration));
+                    return products;
+                });
+    }
+
+    /**
+     * Retourne les produits présents dans le cache parmi les identifiants demandés.
+     */
+    public Map<Long, ProductDTO> getCached(Collection<Long> productIds) {
+        return new HashMap<>(cache.getAllPresent(productIds));
+    }
+
+    /**
+     * Génération courante du cache, incrémentée à chaque invalidation.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Met en cache les produits retournés par l'endpoint groupé du service Produit,
+     * sauf si une invalidation a eu lieu depuis {@code loadedGeneration}.
+     *
+     * @param loadedGeneration génération relevée avant l'appel au service Produit
+     */
+    public Map<Long, ProductDTO> putAll(Collection<ProductAvailabilityDTO> fetched, long loadedGeneration) {
+        Map<Long, ProductDTO> products = new HashMap<>();
+        for (ProductAvailabilityDTO availability : fetched) {
+            ProductDTO product = availability.toProduct();
+            products.put(product.getId(), product);
+        }
+        put(products, loadedGeneration);
+        return products;
+    }
+
+    /**
+     * Retire un produit du cache (produit modifié ou supprimé).
+     */
+    public void invalidate(Long productId) {
+        generation.incrementAndGet();
+        cache.invalidate(productId);
+        log.debug("Produit {} retiré du cache", productId);
+    }
+
+    /**
+     * Écrit puis relit la génération : une invalidation concurrente, qui incrémente la
+     * génération avant de vider son entrée, ne peut pas être suivie d'une valeur périmée.
+     */
+    private void put(Map<Long, ProductDTO> products, long loadedGeneration) {
+        cache.putAll(products);
+        if (generation.get() != loadedGeneration) {
+            cache.invalidateAll(products.keySet());
+            log.debug("Produits {} chargés avant une invalidation, non conservés", products.keySet());
+        }
+    }
+}
@@ -1,32 +1,75 @@
 package com.secure.order.client;
 
+import com.secure.common.security.InternalIdentity;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Client REST pour communiquer avec le service Produit.
  * Utilise WebClient pour les appels non-bloquants et propage le token JWT.
+ * Les connexions proviennent du pool dédié configuré par {@code ProductClientConfig}.
+ * Les méthodes suffixées {@code Async} retournent un {@link Mono} sans bloquer ;
+ * elles passent par le même circuit breaker {@code productService} que les variantes
+ * bloquantes (annotées), et seule la lecture des produits est rejouée après une erreur
+ * de connexion : une réservation de stock n'est jamais envoyée deux fois.
+ * Si {@code internal.identity.enabled} est actif, une identité signée accompagne le
+ * token pour que le service Produit n'ait pas à revérifier sa signature. Elle reprend
+ * le JWT authentifié de l'appelant : contexte de sécurité du thread pour les appels
+ * bloquants, contexte Reactor ({@link #withCurrentCaller()}) pour les variantes {@code Async}.
  */
 @Component
 @Slf4j
 public class ProductServiceClient {
 
     private final WebClient webClient;
+    private final byte[] identitySecret;
+    private final Duration identityTtl;
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker circuitBreaker;
+    private final Retry retry;
 
     public ProductServiceClient(WebClient.Builder webClientBuilder,
-            @Value("${product-service.url:http://localhost:8081}") String productServiceUrl) {
+            ClientHttpConnector productServiceConnector,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            @Value("${product-service.url:http://localhost:8081}") String productServiceUrl,
+            @Value("${internal.identity.enabled:false}") boolean identityEnabled,
+            @Value("${internal.identity.secret:}") String identitySecret,
+            @Value("${internal.identity.ttl:30s}") Duration identityTtl) {
         this.webClient = webClientBuilder
+                .clientConnector(productServiceConnector)
                 .baseUrl(productServiceUrl)
                 .build();
+        this.identitySecret = identityEnabled ? InternalIdentity.secretKey(identitySecret) : new byte[0];
+        this.identityTtl = identityTtl;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("productService");
+        this.retry = retryRegistry.retry("productService");
     }
 
     /**
@@ -40,7 +83,7 @@ public class ProductServiceClient {
         try {
             ProductDTO product = webClient.get()
                     .uri("/api/products/{id}", productId)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtToken)
+                    .headers(headers -> authenticate(headers, jwtToken, currentCaller()))
                     .retrieve()
                     .onStatus(HttpStatusCode::is4xxClientError, response -> {
                         log.warn("Produit non trouvé: {}", productId);
@@ -56,6 +99,46 @@ public class ProductServiceClient {
         }
     }
 
+    /**
+     * Récupère en un seul appel les produits d'une commande et la disponibilité
+     * des quantités demandées.
+     * Retourne un Optional vide si le service Produit n'a pas pu répondre.
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "getProductsAvailabilityFallback")
+    public Optional<List<ProductAvailabilityDTO>> getProductsAvailability(List<StockItemRequest> items,
+            String jwtToken) {
+        try {
+            return Optional.ofNullable(fetchProductsAvailability(items, jwtToken, currentCaller()).block());
+        } catch (Exception e) {
+            log.error("Erreur lors de l'appel groupé au service Produit: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Variante non bloquante de {@link #getProductsAvailability}, rejouée une fois après
+     * une erreur de connexion. Les erreurs sont propagées dans le Mono ; circuit ouvert,
+     * il échoue sans appel ({@code CallNotPermittedException}).
+     */
+    public Mono<List<ProductAvailabilityDTO>> getProductsAvailabilityAsync(List<StockItemRequest> items,
+            String jwtToken) {
+        return Mono.deferContextual(context -> fetchProductsAvailability(items, jwtToken, caller(context)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry));
+    }
+
+    private Mono<List<ProductAvailabilityDTO>> fetchProductsAvailability(List<StockItemRequest> items,
+            String jwtToken, Authentication caller) {
+        return webClient.post()
+                .uri("/api/products/batch")
+                .headers(headers -> authenticate(headers, jwtToken, caller))
+                .bodyValue(Map.of("items", items))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<ProductAvailabilityDTO>>() {
+                })
+                .doOnSubscribe(subscription -> log.info("Appel groupé au service Produit pour {} lignes", items.size()));
+    }
+
     /**
      * Vérifie la disponibilité du stock d'un produit.
      */
@@ -66,7 +149,7 @@ public class ProductServiceClient {
         try {
             Map<String, Boolean> response = webClient.get()
                     .uri("/api/products/{id}/stock/check?quantity={quantity}", productId, quantity)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtToken)
+                    .headers(headers -> authenticate(headers, jwtToken, currentCaller()))
                     .retrieve()
                     .bodyToMono(Map.class)
                     .block();
@@ -88,7 +171,7 @@ public class ProductServiceClient {
         try {
             webClient.put()
                     .uri("/api/products/{id}/stock/decrement", productId)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtToken)
+                    .headers(headers -> authenticate(headers, jwtToken, currentCaller()))
                     .bodyValue(Map.of("quantity", quantity))
                     .retrieve()
                     .toBodilessEntity()
@@ -101,6 +184,98 @@ public class ProductServiceClient {
         }
     }
 
+    /**
+     * Réserve en un seul appel le stock de toutes les lignes d'une commande.
+     * Le service Produit applique la réservation en tout-ou-rien, une seule fois par
+     * {@code reservationId}. Sans réponse exploitable (délai dépassé, 5xx, erreur de
+     * transport), le résultat est incertain : la réservation a pu être appliquée.
+     */
+    @CircuitBreaker(name = "productService", fallbackMethod = "reserveStockFallback")
+    public StockReservationResult reserveStock(String reservationId, List<StockItemRequest> items, String jwtToken) {
+        try {
+            return sendReservation(reservationId, items, jwtToken, currentCaller()).block();
+        } catch (Exception e) {
+            log.error("Erreur lors de la réservation du stock {}: {}", reservationId, e.getMessage());
+            return StockReservationResult.uncertain("Le service Produit est indisponible, le stock n'a pas pu être réservé");
+        }
+    }
+
+    /**
+     * Variante non bloquante de {@link #reserveStock}, avec les mêmes résultats.
+     * Protégée par le circuit breaker, jamais rejouée : seul un appel refusé par le
+     * circuit ouvert ({@link CallNotPermittedException}) est propagé dans le Mono.
+     */
+    public Mono<StockReservationResult> reserveStockAsync(String reservationId, List<StockItemRequest> items,
+            String jwtToken) {
+        return Mono.deferContextual(context -> sendReservation(reservationId, items, jwtToken, caller(context)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorResume(e -> !(e instanceof CallNotPermittedException), e -> {
+                    log.error("Erreur lors de la réservation du stock {}: {}", reservationId, e.getMessage());
+                    return Mono.just(StockReservationResult.uncertain(
+                            "Le service Produit est indisponible, le stock n'a pas pu être réservé"));
+                });
+    }
+
+    private Mono<StockReservationResult> sendReservation(String reservationId, List<StockItemRequest> items,
+            String jwtToken, Authentication caller) {
+        return webClient.post()
+                .uri("/api/products/stock/reserve")
+                .headers(headers -> authenticate(headers, jwtToken, caller))
+                .bodyValue(Map.of("reservationId", reservationId, "items", items))
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.releaseBody().thenReturn(StockReservationResult.success());
+                    }
+                    if (response.statusCode().is4xxClientError()) {
+                        return response.bodyToMono(Map.class)
+                                .map(body -> StockReservationResult.rejected(
+                                        Objects.toString(body.get("message"), "Réservation du stock refusée")))
+                                .defaultIfEmpty(StockReservationResult.rejected("Réservation du stock refusée"));
+                    }
+                    return response.<StockReservationResult>createError();
+                })
+                .doOnSubscribe(subscription -> log.info("Réservation du stock pour {} lignes", items.size()));
+    }
+
+    /**
+     * Place l'utilisateur de la requête en cours dans le contexte Reactor, pour les
+     * appels {@code Async} exécutés hors du thread de la requête.
+     * À appliquer ({@code contextWrite}) pendant l'assemblage, sur le thread de la requête.
+     */
+    public static Function<Context, Context> withCurrentCaller() {
+        Authentication caller = currentCaller();
+        return context -> caller != null ? context.put(Authentication.class, caller) : context;
+    }
+
+    private static Authentication currentCaller() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Authentication caller(ContextView context) {
+        return context.getOrDefault(Authentication.class, currentCaller());
+    }
+
+    /**
+     * Propage le token de l'utilisateur et, si le mode est actif, son identité signée.
+     * L'identité reprend les claims du JWT authentifié de l'appelant (vérifié à l'entrée
+     * du service), à condition qu'il porte bien le token propagé.
+     */
+    private void authenticate(HttpHeaders headers, String jwtToken, Authentication caller) {
+        headers.setBearerAuth(jwtToken);
+        if (identitySecret.length == 0) {
+            return;
+        }
+        if (caller == null || !(caller.getPrincipal() instanceof Jwt jwt) || !jwt.getTokenValue().equals(jwtToken)) {
+            log.debug("Aucun JWT authentifié pour ce token, identité interne non transmise");
+            return;
+        }
+        Instant expiresAt = Instant.now().plus(identityTtl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        headers.set(InternalIdentity.HEADER, InternalIdentity.from(jwt.getClaims(), expiresAt).sign(identitySecret));
+    }
+
     // Fallback methods for Circuit Breaker
 
     private Optional<ProductDTO> getProductFallback(Long productId, String jwtToken, Throwable t) {
@@ -108,11 +283,23 @@ public class ProductServiceClient {
         return Optional.empty();
     }
 
+    private Optional<List<ProductAvailabilityDTO>> getProductsAvailabilityFallback(List<StockItemRequest> items,
+            String jwtToken, Throwable t) {
+        log.warn("Fallback activé pour getProductsAvailability - {} lignes, erreur: {}", items.size(), t.getMessage());
+        return Optional.empty();
+    }
+
     private boolean checkStockFallback(Long productId, Integer quantity, String jwtToken, Throwable t) {
         log.warn("Fallback activé pour checkStock - productId: {}, erreur: {}", productId, t.getMessage());
         return false;
     }
 
+    private StockReservationResult reserveStockFallback(String reservationId, List<StockItemRequest> items,
+            String jwtToken, Throwable t) {
+        log.warn("Fallback activé pour reserveStock - {} lignes, erreur: {}", items.size(), t.getMessage());
+        return StockReservationResult.rejected("Le service Produit est indisponible, le stock n'a pas pu être réservé");
+    }
+
     private boolean decrementStockFallback(Long productId, Integer quantity, String jwtToken, Throwable t) {
         log.warn("Fallback activé pour decrementStock - productId: {}, erreur: {}", productId, t.getMessage());
         return false;
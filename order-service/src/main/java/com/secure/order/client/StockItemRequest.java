@@ -0,0 +1,18 @@
+package com.secure.order.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ligne de demande de stock envoyée au service Produit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockItemRequest {
+    private Long productId;
+    private Integer quantity;
+}
@@ -0,0 +1,29 @@
+package com.secure.order.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Résultat d'une demande de réservation de stock auprès du service Produit.
+ * {@code uncertain} signale une réponse jamais reçue (délai dépassé, 5xx, erreur de
+ * transport) : le service Produit a pu appliquer la réservation malgré tout.
+ */
+@Data
+@AllArgsConstructor
+public class StockReservationResult {
+    private boolean reserved;
+    private boolean uncertain;
+    private String message;
+
+    public static StockReservationResult success() {
+        return new StockReservationResult(true, false, null);
+    }
+
+    public static StockReservationResult rejected(String message) {
+        return new StockReservationResult(false, false, message);
+    }
+
+    public static StockReservationResult uncertain(String message) {
+        return new StockReservationResult(false, true, message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.secure.order.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Pool de connexions HTTP dédié aux appels vers le service Produit
+ * ({@code ProductServiceClient} et relais de l'outbox).
+ * Les connexions sont réutilisées (keep-alive), les attentes sont bornées à chaque
+ * étape (acquisition, connexion, réponse) et le pool publie ses métriques
+ * {@code reactor.netty.connection.provider.*} (connexions actives, inactives, en
+ * attente, temps d'acquisition) dans le registre Micrometer global, exporté vers
+ * Prometheus. Ce connecteur remplace celui de Spring Boot pour tous les WebClient du
+ * service, qui n'appellent que le service Produit.
+ */
+@Configuration
+public class ProductClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productServiceConnectionProvider(
+            @Value("${product-service.http.max-connections:50}") int maxConnections,
+            @Value("${product-service.http.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${product-service.http.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${product-service.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${product-service.http.max-life-time:5m}") Duration maxLifeTime) {
+        return ConnectionProvider.builder("product-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                // Ferme aussi les connexions inactives quand aucune requête ne passe
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector productServiceConnector(ConnectionProvider productServiceConnectionProvider,
+            @Value("${product-service.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${product-service.http.response-timeout:3s}") Duration responseTimeout,
+            @Value("${product-service.http.h2c:false}") boolean h2c) {
+        HttpClient httpClient = HttpClient.create(productServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout)
+                .protocol(h2c ? new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[] {HttpProtocol.HTTP11});
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
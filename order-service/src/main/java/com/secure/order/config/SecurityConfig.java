@@ -1,5 +1,11 @@
 package com.secure.order.config;
 
+import com.secure.common.security.CachingJwtAuthenticationManager;
+import com.secure.common.security.InternalIdentity;
+import com.secure.common.security.InternalIdentityFilter;
+import com.secure.common.security.JwtDecoderFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -10,9 +16,13 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.net.MalformedURLException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -28,7 +38,10 @@ import java.util.stream.Collectors;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+            CachingJwtAuthenticationManager jwtAuthenticationManager,
+            @Value("${internal.identity.enabled:false}") boolean internalIdentityEnabled,
+            @Value("${internal.identity.secret:}") String internalIdentitySecret) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -36,15 +49,50 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Autoriser les requêtes preflight CORS
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
+                        // Endpoints publics pour la documentation et la santé
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        // Métriques Prometheus : lues sur le réseau interne, jamais routées par le gateway
+                        .requestMatchers("/actuator/prometheus").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                        // Événements internes, authentifiés par secret partagé
+                        .requestMatchers("/internal/events/**").permitAll()
                         .anyRequest().authenticated())
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
+                        .jwt(jwt -> jwt.authenticationManager(jwtAuthenticationManager)));
+
+        // Identité signée par le gateway : évite de revérifier le JWT (optionnel)
+        if (internalIdentityEnabled) {
+            http.addFilterBefore(new InternalIdentityFilter(InternalIdentity.secretKey(internalIdentitySecret),
+                    jwtAuthenticationConverter()), BearerTokenAuthenticationFilter.class);
+        }
 
         return http.build();
     }
 
+    /**
+     * Décodeur JWT dont le jeu de clés Keycloak est rafraîchi en arrière-plan avant
+     * son expiration : une rotation de clés ne bloque pas les requêtes en cours.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${security.jwt.jwks.ttl:15m}") Duration jwksTtl,
+            @Value("${security.jwt.jwks.refresh-ahead:1m}") Duration jwksRefreshAhead) throws MalformedURLException {
+        return JwtDecoderFactory.jwtDecoder(jwkSetUri, issuerUri, jwksTtl, jwksRefreshAhead);
+    }
+
+    /**
+     * Authentification des bearer tokens avec cache des tokens déjà vérifiés.
+     */
+    @Bean
+    public CachingJwtAuthenticationManager jwtAuthenticationManager(JwtDecoder jwtDecoder, MeterRegistry meterRegistry,
+            @Value("${security.jwt.cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.jwt.cache.max-ttl:5m}") Duration maxTtl) {
+        return new CachingJwtAuthenticationManager(jwtDecoder, jwtAuthenticationConverter(), maximumSize, maxTtl,
+                meterRegistry);
+    }
+
     @Bean
     public org.springframework.web.cors.CorsConfigurationSource corsConfigurationSource() {
         org.springframework.web.cors.CorsConfiguration config = new org.springframework.web.cors.CorsConfiguration();
@@ -0,0 +1,19 @@
+package com.secure.order.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active l'exécution des méthodes {@code @Async} et des tâches {@code @Scheduled}
+ * (relais de l'outbox).
+ * Lorsque {@code spring.threads.virtual.enabled=true}, Spring Boot exécute les
+ * requêtes Tomcat, les tâches {@code @Async} et les tâches planifiées sur des
+ * threads virtuels : les appels bloquants (JPA, {@code WebClient.block()})
+ * ne monopolisent plus alors un thread de plateforme.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ThreadingConfig {
+}
@@ -0,0 +1,62 @@
+package com.secure.order.controller;
+
+import com.secure.order.client.ProductCache;
+import com.secure.order.event.ProductChangedEvent;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Réception des événements internes envoyés par les autres services.
+ * Ces endpoints ne passent pas par Keycloak : ils sont authentifiés par le secret
+ * partagé {@code internal.events.secret} et ne sont pas exposés par le gateway.
+ */
+@RestController
+@RequestMapping("/internal/events")
+@Slf4j
+@Hidden
+public class InternalEventController {
+
+    public static final String TOKEN_HEADER = "X-Internal-Events-Token";
+
+    private final ProductCache productCache;
+    private final byte[] secret;
+
+    public InternalEventController(ProductCache productCache,
+            @Value("${internal.events.secret:}") String secret) {
+        this.productCache = productCache;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Invalide le produit concerné dans le cache local.
+     */
+    @PostMapping("/products")
+    public ResponseEntity<Void> onProductChanged(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestBody ProductChangedEvent event) {
+        if (!isAuthorized(token)) {
+            log.warn("Événement produit refusé: secret interne absent ou invalide");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        log.debug("Événement {} reçu pour le produit {}", event.getType(), event.getProductId());
+        productCache.invalidate(event.getProductId());
+        return ResponseEntity.noContent().build();
+    }
+
+    private boolean isAuthorized(String token) {
+        return secret.length > 0 && token != null
+                && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package com.secure.order.controller;
+
+import com.secure.order.dto.ProductSales;
+import com.secure.order.dto.RevenueBucket;
+import com.secure.order.entity.OrderStatus;
+import com.secure.order.service.OrderAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contrôleur REST des statistiques de commandes, servies par les agrégats horaires.
+ * Les périodes sont des intervalles [from, to) en heure locale du service.
+ */
+@RestController
+@RequestMapping("/api/orders/analytics")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Order analytics", description = "Statistiques agrégées des commandes")
+@SecurityRequirement(name = "bearer-jwt")
+public class OrderAnalyticsController {
+
+    private final OrderAnalyticsService orderAnalyticsService;
+
+    /**
+     * Commandes, unités et chiffre d'affaires par heure ou par jour et par statut.
+     * Réservé au rôle ADMIN.
+     */
+    @GetMapping("/revenue")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Chiffre d'affaires", description = "Commandes, unités et chiffre d'affaires par tranche "
+            + "(HOUR ou DAY) et par statut (ADMIN uniquement)")
+    public ResponseEntity<List<RevenueBucket>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") OrderAnalyticsService.Granularity granularity,
+            @RequestParam(required = false) OrderStatus status,
+            @AuthenticationPrincipal Jwt jwt) {
+        log.info("GET /api/orders/analytics/revenue - Utilisateur ADMIN: {}", jwt.getClaimAsString("preferred_username"));
+        return ResponseEntity.ok(orderAnalyticsService.getRevenue(from, to, granularity, status));
+    }
+
+    /**
+     * Produits les plus vendus sur la période.
+     * Réservé au rôle ADMIN.
+     */
+    @GetMapping("/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ventes par produit", description = "Unités et chiffre d'affaires par produit, commandes "
+            + "annulées exclues sauf statut demandé (ADMIN uniquement)")
+    public ResponseEntity<List<ProductSales>> getProductSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        log.info("GET /api/orders/analytics/products - Utilisateur ADMIN: {}", jwt.getClaimAsString("preferred_username"));
+        return ResponseEntity.ok(orderAnalyticsService.getProductSales(from, to, status, limit));
+    }
+}
@@ -1,7 +1,9 @@
 package com.secure.order.controller;
 
+import com.secure.order.dto.OrderPage;
 import com.secure.order.entity.Order;
 import com.secure.order.entity.OrderStatus;
+import com.secure.order.service.IdempotencyService;
 import com.secure.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -16,7 +18,6 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,16 +31,22 @@ import java.util.Map;
 @SecurityRequirement(name = "bearer-jwt")
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Crée une nouvelle commande.
+     * Avec un en-tête Idempotency-Key, une requête répétée renvoie la commande déjà créée.
      * Réservé au rôle CLIENT.
      */
     @PostMapping
     @PreAuthorize("hasRole('CLIENT')")
-    @Operation(summary = "Créer une commande", description = "Crée une nouvelle commande (CLIENT uniquement)")
+    @Operation(summary = "Créer une commande", description = "Crée une nouvelle commande (CLIENT uniquement) ; "
+            + "l'en-tête Idempotency-Key rend les nouvelles tentatives sans effet")
     public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal Jwt jwt) {
         String userId = jwt.getSubject();
         String username = jwt.getClaimAsString("preferred_username");
@@ -47,36 +54,44 @@ public class OrderController {
 
         log.info("POST /api/orders - Création par: {}", username);
 
-        Order createdOrder = orderService.createOrder(order, userId, username, token);
+        Order createdOrder = idempotencyKey == null
+                ? orderService.createOrder(order, userId, username, token)
+                : idempotencyService.execute(userId, idempotencyKey, order,
+                        () -> orderService.reserveOrder(order, userId, username, token),
+                        orderService::saveOrder, orderService::releaseReservation);
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
 
     /**
-     * Récupère les commandes de l'utilisateur connecté.
+     * Récupère les commandes de l'utilisateur connecté, page par page.
      * Réservé au rôle CLIENT.
      */
     @GetMapping("/my")
     @PreAuthorize("hasRole('CLIENT')")
-    @Operation(summary = "Mes commandes", description = "Récupère les commandes de l'utilisateur connecté")
-    public ResponseEntity<List<Order>> getMyOrders(@AuthenticationPrincipal Jwt jwt) {
+    @Operation(summary = "Mes commandes", description = "Récupère une page des commandes de l'utilisateur connecté ; passer nextCursor dans 'cursor' pour la suite")
+    public ResponseEntity<OrderPage> getMyOrders(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal Jwt jwt) {
         String userId = jwt.getSubject();
         log.info("GET /api/orders/my - Utilisateur: {}", jwt.getClaimAsString("preferred_username"));
 
-        List<Order> orders = orderService.getOrdersByUserId(userId);
+        OrderPage orders = orderService.getOrdersByUserId(userId, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
     /**
-     * Récupère toutes les commandes.
+     * Récupère toutes les commandes, page par page.
      * Réservé au rôle ADMIN.
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Lister toutes les commandes", description = "Récupère toutes les commandes (ADMIN uniquement)")
-    public ResponseEntity<List<Order>> getAllOrders(@AuthenticationPrincipal Jwt jwt) {
+    @Operation(summary = "Lister toutes les commandes", description = "Récupère une page de toutes les commandes (ADMIN uniquement)")
+    public ResponseEntity<OrderPage> getAllOrders(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal Jwt jwt) {
         log.info("GET /api/orders - Utilisateur ADMIN: {}", jwt.getClaimAsString("preferred_username"));
 
-        List<Order> orders = orderService.getAllOrders();
+        OrderPage orders = orderService.getAllOrders(cursor, size);
         return ResponseEntity.ok(orders);
     }
 
@@ -0,0 +1,56 @@
+package com.secure.order.controller;
+
+import com.secure.order.entity.Order;
+import com.secure.order.service.ReactiveOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Contrôleur REST du chemin réactif de création de commande.
+ * Le thread Tomcat est libéré dès que le Mono est retourné.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Orders", description = "API de gestion des commandes")
+@SecurityRequirement(name = "bearer-jwt")
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService reactiveOrderService;
+
+    /**
+     * Crée une nouvelle commande de manière non bloquante.
+     * Réservé au rôle CLIENT.
+     */
+    @PostMapping("/reactive")
+    @PreAuthorize("hasRole('CLIENT')")
+    @Operation(summary = "Créer une commande (réactif)", description = "Crée une nouvelle commande sans bloquer de thread pendant les appels au service Produit (CLIENT uniquement)")
+    public Mono<ResponseEntity<Order>> createOrder(@Valid @RequestBody Order order,
+            @AuthenticationPrincipal Jwt jwt) {
+        String userId = jwt.getSubject();
+        String username = jwt.getClaimAsString("preferred_username");
+        String token = jwt.getTokenValue();
+
+        log.info("POST /api/orders/reactive - Création par: {}", username);
+
+        return reactiveOrderService.createOrder(order, userId, username, token)
+                .map(createdOrder -> new ResponseEntity<>(createdOrder, HttpStatus.CREATED));
+    }
+}
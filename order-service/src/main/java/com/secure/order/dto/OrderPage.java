@@ -0,0 +1,21 @@
+package com.secure.order.dto;
+
+import com.secure.order.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'historique de commandes, de la plus récente à la plus ancienne.
+ * {@code nextCursor} est opaque : il est à repasser en paramètre {@code cursor}
+ * pour obtenir la page suivante et vaut null sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+    private List<Order> items;
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Ventes d'un produit sur une période : unités et chiffre d'affaires.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSales {
+    private Long productId;
+    private Long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,23 @@
+package com.secure.order.dto;
+
+import com.secure.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Statistiques des commandes d'une tranche (heure ou jour) pour un statut.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucket {
+    private LocalDateTime bucketStart;
+    private OrderStatus status;
+    private long orders;
+    private long units;
+    private BigDecimal revenue;
+}
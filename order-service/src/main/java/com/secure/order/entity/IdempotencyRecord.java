@@ -0,0 +1,59 @@
+package com.secure.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'une requête de création de commande portant un en-tête {@code Idempotency-Key}.
+ * La ligne est réservée avant le traitement, puis complétée avec la réponse dans la
+ * même transaction que la commande : une répétition de la clé renvoie cette réponse.
+ * Chaque reprise d'un traitement abandonné incrémente {@code fencingToken} ; un
+ * traitement dépassé ne peut plus ni compléter ni libérer la clé.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"user_id", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_created", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /** Empreinte SHA-256 du corps de la requête, pour refuser une clé réutilisée avec un autre contenu. */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /** Réponse sérialisée ; null tant que le traitement est en cours. */
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** Début du traitement en cours ; au-delà du délai, une autre requête peut le reprendre. */
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    /** Jeton du traitement propriétaire de la clé, incrémenté à chaque reprise. */
+    @Column(name = "fencing_token", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long fencingToken = 0;
+}
@@ -2,6 +2,7 @@ package com.secure.order.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,9 +13,14 @@ import java.util.List;
 
 /**
  * Entité représentant une commande client.
+ * Les index couvrent la pagination de l'historique par (order_date, id),
+ * par utilisateur et globalement.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date, id"),
+        @Index(name = "idx_orders_date", columnList = "order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +28,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_seq")
+    @SequenceGenerator(name = "orders_id_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -31,6 +38,10 @@ public class Order {
     @Column(name = "username")
     private String username;
 
+    // Généré avant l'appel au service Produit : rend la réservation de stock idempotente
+    @Column(name = "reservation_id", length = 36)
+    private String reservationId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
@@ -39,7 +50,9 @@ public class Order {
     @Column(name = "total_amount", precision = 12, scale = 2)
     private BigDecimal totalAmount;
 
+    // Chargés par lots (IN) pour toutes les commandes d'une page, sans requête par commande
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
 
@@ -0,0 +1,50 @@
+package com.secure.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Variation des statistiques de commandes, écrite dans la transaction de la commande
+ * puis reportée dans les tables d'agrégats par {@code OrderStatsRollup}.
+ * Une ligne sans produit porte le nombre de commandes et le montant total ; une ligne
+ * par produit porte les unités et le chiffre d'affaires de ce produit.
+ * Les lignes sont seulement ajoutées : aucune commande n'attend le verrou d'un agrégat.
+ */
+@Entity
+@Table(name = "order_stats_deltas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatsDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_stats_deltas_id_seq")
+    @SequenceGenerator(name = "order_stats_deltas_id_seq", sequenceName = "order_stats_deltas_id_seq",
+            allocationSize = 50)
+    private Long id;
+
+    /** Heure de la commande (tronquée à l'heure). */
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    /** Null pour la ligne de niveau commande. */
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private int orders;
+
+    @Column(nullable = false)
+    private int units;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
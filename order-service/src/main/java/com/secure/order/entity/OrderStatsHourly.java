@@ -0,0 +1,42 @@
+package com.secure.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat horaire des commandes par statut : nombre de commandes, unités et chiffre
+ * d'affaires des commandes passées dans l'heure. Une commande qui change de statut
+ * passe d'une ligne à l'autre de la même heure.
+ */
+@Entity
+@Table(name = "order_stats_hourly",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_stats_hourly", columnNames = {"bucket_start", "status"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatsHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private long orders;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,63 @@
+package com.secure.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement en attente de publication (outbox transactionnelle).
+ * Écrit dans la même transaction que la commande qu'il décrit, puis publié vers
+ * le service Produit par le relais de l'outbox.
+ * Un événement en cours d'envoi est réservé jusqu'à {@code leaseUntil} ; un événement
+ * refusé {@code order.outbox.max-attempts} fois est mis de côté ({@code parkedAt})
+ * pour ne pas bloquer les suivants.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_pending", columnList = "published_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, unique = true, length = 36)
+    private String eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private OutboxEventType type;
+
+    /** Commande concernée ; null pour ORDER_ABORTED, la commande n'ayant jamais été enregistrée. */
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    /** Nombre de refus par le service Produit. */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
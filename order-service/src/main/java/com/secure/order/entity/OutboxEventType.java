@@ -0,0 +1,11 @@
+package com.secure.order.entity;
+
+/**
+ * Types d'événements du cycle de vie des commandes publiés via l'outbox.
+ */
+public enum OutboxEventType {
+    ORDER_CREATED,
+    ORDER_CANCELLED,
+    /** Stock réservé rendu pour une commande qui n'a pas pu être enregistrée. */
+    ORDER_ABORTED
+}
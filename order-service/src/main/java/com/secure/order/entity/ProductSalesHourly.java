@@ -0,0 +1,41 @@
+package com.secure.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat horaire des ventes par produit et par statut de commande.
+ */
+@Entity
+@Table(name = "product_sales_hourly",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_hourly",
+                columnNames = {"bucket_start", "status", "product_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenue;
+}
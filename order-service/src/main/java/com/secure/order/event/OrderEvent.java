@@ -0,0 +1,35 @@
+package com.secure.order.event;
+
+import com.secure.order.entity.OutboxEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Événement du cycle de vie d'une commande, tel que publié au service Produit.
+ * {@code eventId} est unique : le consommateur s'en sert pour ignorer les doublons.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    private String eventId;
+    private OutboxEventType type;
+    private Long orderId;
+    private String userId;
+    private List<Item> items;
+    private LocalDateTime occurredAt;
+    private String reservationId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,24 @@
+package com.secure.order.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Événement reçu du service Produit lorsqu'un produit est créé, modifié ou supprimé.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Long productId;
+    private Type type;
+    private Instant occurredAt;
+}
@@ -0,0 +1,19 @@
+package com.secure.order.exception;
+
+/**
+ * Exception levée lorsqu'une clé d'idempotence est réutilisée avec une autre requête,
+ * ou que la requête d'origine est encore en cours de traitement.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final boolean inProgress;
+
+    public IdempotencyConflictException(String message, boolean inProgress) {
+        super(message);
+        this.inProgress = inProgress;
+    }
+
+    public boolean isInProgress() {
+        return inProgress;
+    }
+}
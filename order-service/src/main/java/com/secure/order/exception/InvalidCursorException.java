@@ -0,0 +1,11 @@
+package com.secure.order.exception;
+
+/**
+ * Exception levée lorsqu'un curseur de pagination ne peut pas être décodé.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
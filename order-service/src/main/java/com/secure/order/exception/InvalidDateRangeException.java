@@ -0,0 +1,11 @@
+package com.secure.order.exception;
+
+/**
+ * Exception levée lorsqu'une période d'analyse ne se termine pas après son début.
+ */
+public class InvalidDateRangeException extends RuntimeException {
+
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.secure.order.exception;
+
+/**
+ * Exception levée lorsque l'en-tête Idempotency-Key est vide ou trop long.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
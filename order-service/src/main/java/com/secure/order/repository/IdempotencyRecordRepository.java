@@ -0,0 +1,59 @@
+package com.secure.order.repository;
+
+import com.secure.order.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository JPA des clés d'idempotence des créations de commande.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Lue dans une transaction d'écriture, donc sur le primaire : un réplica en retard
+     * ne verrait pas une clé qui vient d'être réservée.
+     */
+    @Transactional
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(String userId, String idempotencyKey);
+
+    /**
+     * Reprend un traitement abandonné : réussit seulement si personne ne l'a repris
+     * entre-temps, et passe au jeton suivant.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.lockedAt = :now, r.fencingToken = r.fencingToken + 1 " +
+            "WHERE r.id = :id AND r.fencingToken = :fencingToken AND r.responseBody IS NULL")
+    int takeOver(@Param("id") Long id, @Param("fencingToken") long fencingToken, @Param("now") LocalDateTime now);
+
+    /**
+     * Enregistre la réponse, seulement si la clé appartient encore au traitement.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody, r.completedAt = :now " +
+            "WHERE r.id = :id AND r.fencingToken = :fencingToken AND r.responseBody IS NULL")
+    int complete(@Param("id") Long id, @Param("fencingToken") long fencingToken,
+            @Param("responseBody") String responseBody, @Param("now") LocalDateTime now);
+
+    /**
+     * Libère une clé dont le traitement a échoué, pour qu'une nouvelle tentative le rejoue ;
+     * sans effet si le traitement a été repris entre-temps.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r " +
+            "WHERE r.id = :id AND r.fencingToken = :fencingToken AND r.responseBody IS NULL")
+    int release(@Param("id") Long id, @Param("fencingToken") long fencingToken);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -2,6 +2,7 @@ package com.secure.order.repository;
 
 import com.secure.order.entity.Order;
 import com.secure.order.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +22,35 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     List<Order> findByUserIdOrderByOrderDateDesc(String userId);
 
+    /**
+     * Première page de l'historique d'un utilisateur (index {@code idx_orders_user_date}).
+     */
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByUserId(@Param("userId") String userId, Limit limit);
+
+    /**
+     * Page suivante de l'historique d'un utilisateur, après la commande (orderDate, id).
+     */
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId"
+            + " AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id))"
+            + " ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByUserIdBefore(@Param("userId") String userId,
+            @Param("orderDate") LocalDateTime orderDate, @Param("id") Long id, Limit limit);
+
+    /**
+     * Première page de toutes les commandes (index {@code idx_orders_date}).
+     */
+    @Query("SELECT o FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPage(Limit limit);
+
+    /**
+     * Page suivante de toutes les commandes, après la commande (orderDate, id).
+     */
+    @Query("SELECT o FROM Order o"
+            + " WHERE o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)"
+            + " ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageBefore(@Param("orderDate") LocalDateTime orderDate, @Param("id") Long id, Limit limit);
+
     /**
      * Récupère les commandes par statut.
      */
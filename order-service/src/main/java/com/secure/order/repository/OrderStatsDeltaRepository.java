@@ -0,0 +1,29 @@
+package com.secure.order.repository;
+
+import com.secure.order.entity.OrderStatsDelta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository JPA des variations de statistiques en attente d'agrégation.
+ */
+@Repository
+public interface OrderStatsDeltaRepository extends JpaRepository<OrderStatsDelta, Long> {
+
+    /**
+     * Prochain lot de variations, verrouillées ; celles déjà prises par une autre
+     * instance sont ignorées (SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM OrderStatsDelta d ORDER BY d.id")
+    List<OrderStatsDelta> findBatchForUpdate(Limit limit);
+}
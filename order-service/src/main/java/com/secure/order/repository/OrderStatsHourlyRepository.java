@@ -0,0 +1,37 @@
+package com.secure.order.repository;
+
+import com.secure.order.entity.OrderStatsHourly;
+import com.secure.order.entity.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository JPA des agrégats horaires de commandes.
+ */
+@Repository
+public interface OrderStatsHourlyRepository extends JpaRepository<OrderStatsHourly, Long> {
+
+    /**
+     * Ajoute des variations à un agrégat existant.
+     *
+     * @return 0 si l'agrégat n'existe pas encore
+     */
+    @Modifying
+    @Query("UPDATE OrderStatsHourly s SET s.orders = s.orders + :orders, s.units = s.units + :units, "
+            + "s.revenue = s.revenue + :revenue WHERE s.bucketStart = :bucketStart AND s.status = :status")
+    int add(@Param("bucketStart") LocalDateTime bucketStart, @Param("status") OrderStatus status,
+            @Param("orders") long orders, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Query("SELECT s FROM OrderStatsHourly s WHERE s.bucketStart >= :from AND s.bucketStart < :to "
+            + "AND s.status IN :statuses ORDER BY s.bucketStart, s.status")
+    List<OrderStatsHourly> findRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("statuses") Collection<OrderStatus> statuses);
+}
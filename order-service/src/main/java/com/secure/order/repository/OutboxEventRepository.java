@@ -0,0 +1,46 @@
+package com.secure.order.repository;
+
+import com.secure.order.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository JPA de l'outbox des événements de commande.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Prochain lot d'événements à publier, dans l'ordre d'écriture : ni publiés, ni mis
+     * de côté, ni réservés par un envoi en cours. Les lignes sont verrouillées le temps
+     * de les réserver ; celles déjà prises par une autre instance sont ignorées (SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.parkedAt IS NULL "
+            + "AND (e.leaseUntil IS NULL OR e.leaseUntil < :now) ORDER BY e.id")
+    List<OutboxEvent> findPublishableForUpdate(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :now, e.leaseUntil = NULL WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Supprime les événements publiés avant la date donnée.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,43 @@
+package com.secure.order.repository;
+
+import com.secure.order.dto.ProductSales;
+import com.secure.order.entity.OrderStatus;
+import com.secure.order.entity.ProductSalesHourly;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository JPA des agrégats horaires de ventes par produit.
+ */
+@Repository
+public interface ProductSalesHourlyRepository extends JpaRepository<ProductSalesHourly, Long> {
+
+    /**
+     * Ajoute des variations à un agrégat existant.
+     *
+     * @return 0 si l'agrégat n'existe pas encore
+     */
+    @Modifying
+    @Query("UPDATE ProductSalesHourly s SET s.units = s.units + :units, s.revenue = s.revenue + :revenue "
+            + "WHERE s.bucketStart = :bucketStart AND s.status = :status AND s.productId = :productId")
+    int add(@Param("bucketStart") LocalDateTime bucketStart, @Param("status") OrderStatus status,
+            @Param("productId") Long productId, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    /**
+     * Ventes par produit sur la période, des plus vendus aux moins vendus.
+     */
+    @Query("SELECT new com.secure.order.dto.ProductSales(s.productId, SUM(s.units), SUM(s.revenue)) "
+            + "FROM ProductSalesHourly s WHERE s.bucketStart >= :from AND s.bucketStart < :to "
+            + "AND s.status IN :statuses GROUP BY s.productId ORDER BY SUM(s.units) DESC, s.productId")
+    List<ProductSales> sumByProduct(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("statuses") Collection<OrderStatus> statuses, Limit limit);
+}
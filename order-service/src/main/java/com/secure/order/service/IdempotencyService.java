@@ -0,0 +1,280 @@
+package com.secure.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.secure.order.entity.IdempotencyRecord;
+import com.secure.order.entity.Order;
+import com.secure.order.exception.IdempotencyConflictException;
+import com.secure.order.exception.InvalidIdempotencyKeyException;
+import com.secure.order.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Exécution idempotente des créations de commande ({@code Idempotency-Key}).
+ * <p>
+ * Une clé est propre à un utilisateur. La première requête réserve la clé en base,
+ * prépare la commande hors transaction (appels distants), puis l'enregistre avec la
+ * réponse dans la même transaction. Une
+ * répétition reçoit la réponse enregistrée sans refaire le traitement ; un doublon
+ * concurrent attend la fin du premier (en mémoire sur la même instance, par
+ * interrogation de la base sinon). Les réponses récentes sont aussi gardées en
+ * mémoire pour éviter l'accès à la base.
+ * <p>
+ * Un traitement bloqué au-delà de {@code lock-timeout} peut être repris ; le jeton de
+ * la clé ({@link IdempotencyRecord#getFencingToken()}) empêche alors le traitement
+ * dépassé de la compléter ou de la libérer. Si la commande préparée n'est pas
+ * enregistrée, son stock est rendu avant la libération de la clé.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * Traitement en cours ou terminé sur cette instance.
+     */
+    private record HotEntry(String requestHash, CompletableFuture<Order> response) {
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, HotEntry> hotEntries;
+    private final Duration waitTimeout;
+    private final Duration lockTimeout;
+    private final Duration retention;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${order.idempotency.hot-size:10000}") long hotSize,
+            @Value("${order.idempotency.hot-ttl:10m}") Duration hotTtl,
+            @Value("${order.idempotency.wait-timeout:10s}") Duration waitTimeout,
+            @Value("${order.idempotency.lock-timeout:30s}") Duration lockTimeout,
+            @Value("${order.idempotency.retention:24h}") Duration retention) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.hotEntries = Caffeine.newBuilder()
+                .maximumSize(hotSize)
+                .expireAfterWrite(hotTtl)
+                .build();
+        this.waitTimeout = waitTimeout;
+        this.lockTimeout = lockTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Crée la commande une seule fois pour une clé donnée et renvoie la réponse
+     * d'origine aux répétitions.
+     * {@code prepareOrder} s'exécute sans transaction, {@code saveOrder} dans la
+     * transaction qui enregistre la réponse ; {@code releaseOrder} rend ce que
+     * {@code prepareOrder} a réservé si cette transaction échoue.
+     *
+     * @throws IdempotencyConflictException si la clé a servi pour une autre requête, ou
+     *                                      si la requête d'origine ne s'est pas terminée à temps
+     */
+    public Order execute(String userId, String idempotencyKey, Order request,
+            Supplier<Order> prepareOrder, UnaryOperator<Order> saveOrder, Consumer<Order> releaseOrder) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("L'en-tête Idempotency-Key doit contenir entre 1 et "
+                    + MAX_KEY_LENGTH + " caractères");
+        }
+        String requestHash = sha256(toJson(request));
+        String hotKey = userId + ':' + idempotencyKey;
+
+        HotEntry mine = new HotEntry(requestHash, new CompletableFuture<>());
+        HotEntry existing = hotEntries.asMap().putIfAbsent(hotKey, mine);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash(), requestHash);
+            log.info("Requête répétée (clé d'idempotence), réponse d'origine renvoyée");
+            return await(existing.response());
+        }
+
+        try {
+            Order response = claimAndRun(userId, idempotencyKey, requestHash, prepareOrder, saveOrder, releaseOrder);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Un échec n'est pas mémorisé : une nouvelle tentative rejouera la création
+            hotEntries.asMap().remove(hotKey, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Supprime les clés au-delà de la durée de rétention.
+     */
+    @Scheduled(cron = "${order.idempotency.purge-cron:0 15 * * * *}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteCreatedBefore(before));
+        log.info("Clés d'idempotence purgées: {}", deleted);
+    }
+
+    private Order claimAndRun(String userId, String idempotencyKey, String requestHash,
+            Supplier<Order> prepareOrder, UnaryOperator<Order> saveOrder, Consumer<Order> releaseOrder) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<IdempotencyRecord> stored = repository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+            if (stored.isEmpty()) {
+                Optional<IdempotencyRecord> claimed = claim(userId, idempotencyKey, requestHash);
+                if (claimed.isPresent()) {
+                    return run(claimed.get(), prepareOrder, saveOrder, releaseOrder);
+                }
+                // Réservée entre-temps par une autre instance : relire la ligne
+                continue;
+            }
+
+            IdempotencyRecord record = stored.get();
+            checkSameRequest(record.getRequestHash(), requestHash);
+            if (record.getResponseBody() != null) {
+                log.info("Requête répétée (clé d'idempotence), réponse enregistrée renvoyée");
+                return fromJson(record.getResponseBody());
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (record.getLockedAt().plus(lockTimeout).isBefore(now)
+                    && repository.takeOver(record.getId(), record.getFencingToken(), now) == 1) {
+                log.warn("Traitement abandonné repris pour la clé d'idempotence {}", record.getId());
+                record.setFencingToken(record.getFencingToken() + 1);
+                return run(record, prepareOrder, saveOrder, releaseOrder);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyConflictException(
+                        "La requête d'origine portant cette clé d'idempotence est toujours en cours", true);
+            }
+            sleep();
+        }
+    }
+
+    private Optional<IdempotencyRecord> claim(String userId, String idempotencyKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return Optional.of(repository.saveAndFlush(IdempotencyRecord.builder()
+                    .userId(userId)
+                    .idempotencyKey(idempotencyKey)
+                    .requestHash(requestHash)
+                    .createdAt(now)
+                    .lockedAt(now)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Prépare la commande sans transaction, puis l'enregistre avec la réponse dans la
+     * même transaction. Si la clé a été reprise entre-temps, la transaction est annulée.
+     * En cas d'échec, la réservation est rendue avant que la clé ne soit libérée : une
+     * nouvelle tentative ne peut pas se cumuler avec un stock encore réservé.
+     */
+    private Order run(IdempotencyRecord record, Supplier<Order> prepareOrder, UnaryOperator<Order> saveOrder,
+            Consumer<Order> releaseOrder) {
+        Order prepared;
+        try {
+            prepared = prepareOrder.get();
+        } catch (RuntimeException e) {
+            repository.release(record.getId(), record.getFencingToken());
+            throw e;
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                Order created = saveOrder.apply(prepared);
+                if (repository.complete(record.getId(), record.getFencingToken(), toJson(created), LocalDateTime.now()) == 0) {
+                    throw new IdempotencyConflictException(
+                            "La requête portant cette clé d'idempotence a été reprise par une autre", true);
+                }
+                return created;
+            });
+        } catch (RuntimeException e) {
+            releaseOrder.accept(prepared);
+            repository.release(record.getId(), record.getFencingToken());
+            throw e;
+        }
+    }
+
+    private Order await(CompletableFuture<Order> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(
+                    "La requête d'origine portant cette clé d'idempotence est toujours en cours", true);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente de la requête d'origine interrompue", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException(
+                    "Cette clé d'idempotence a déjà été utilisée pour une autre requête", false);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente de la requête d'origine interrompue", e);
+        }
+    }
+
+    private String toJson(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Order fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, Order.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.ProductSales;
+import com.secure.order.dto.RevenueBucket;
+import com.secure.order.entity.OrderStatsHourly;
+import com.secure.order.entity.OrderStatus;
+import com.secure.order.exception.InvalidDateRangeException;
+import com.secure.order.repository.OrderStatsHourlyRepository;
+import com.secure.order.repository.ProductSalesHourlyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Statistiques de commandes lues dans les agrégats horaires tenus par
+ * {@link OrderStatsRollup} : le coût d'une requête dépend du nombre de tranches,
+ * pas du nombre de commandes.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderAnalyticsService {
+
+    /** Statuts comptés comme ventes quand aucun statut n'est demandé. */
+    private static final Set<OrderStatus> SALES_STATUSES = EnumSet.complementOf(EnumSet.of(OrderStatus.CANCELLED));
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+
+    private record DayKey(LocalDateTime day, OrderStatus status) {
+    }
+
+    private final OrderStatsHourlyRepository orderStatsRepository;
+    private final ProductSalesHourlyRepository productSalesRepository;
+
+    /**
+     * Commandes, unités et chiffre d'affaires par tranche et par statut, sur [from, to).
+     * Sans statut, tous les statuts sont renvoyés, chacun sur sa ligne.
+     */
+    public List<RevenueBucket> getRevenue(LocalDateTime from, LocalDateTime to, Granularity granularity,
+            OrderStatus status) {
+        checkRange(from, to);
+        Set<OrderStatus> statuses = status != null ? EnumSet.of(status) : EnumSet.allOf(OrderStatus.class);
+        List<OrderStatsHourly> hours = orderStatsRepository.findRange(from, to, statuses);
+        if (granularity == Granularity.HOUR) {
+            return hours.stream()
+                    .map(hour -> new RevenueBucket(hour.getBucketStart(), hour.getStatus(),
+                            hour.getOrders(), hour.getUnits(), hour.getRevenue()))
+                    .toList();
+        }
+
+        Map<DayKey, RevenueBucket> days = new TreeMap<>(
+                Comparator.comparing(DayKey::day).thenComparing(DayKey::status));
+        for (OrderStatsHourly hour : hours) {
+            DayKey key = new DayKey(hour.getBucketStart().truncatedTo(ChronoUnit.DAYS), hour.getStatus());
+            RevenueBucket bucket = days.computeIfAbsent(key,
+                    k -> new RevenueBucket(k.day(), k.status(), 0, 0, BigDecimal.ZERO));
+            bucket.setOrders(bucket.getOrders() + hour.getOrders());
+            bucket.setUnits(bucket.getUnits() + hour.getUnits());
+            bucket.setRevenue(bucket.getRevenue().add(hour.getRevenue()));
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    /**
+     * Produits les plus vendus sur [from, to). Sans statut, les commandes annulées
+     * sont exclues.
+     */
+    public List<ProductSales> getProductSales(LocalDateTime from, LocalDateTime to, OrderStatus status, int limit) {
+        checkRange(from, to);
+        Set<OrderStatus> statuses = status != null ? EnumSet.of(status) : SALES_STATUSES;
+        return productSalesRepository.sumByProduct(from, to, statuses, Limit.of(Math.max(1, limit)));
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidDateRangeException("La date de début doit précéder la date de fin");
+        }
+    }
+}
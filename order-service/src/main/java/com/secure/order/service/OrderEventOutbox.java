@@ -0,0 +1,76 @@
+package com.secure.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OutboxEvent;
+import com.secure.order.entity.OutboxEventType;
+import com.secure.order.event.OrderEvent;
+import com.secure.order.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Écrit les événements du cycle de vie des commandes dans l'outbox.
+ * Doit être appelé dans la transaction qui modifie la commande : l'événement est
+ * enregistré si et seulement si la modification l'est.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        append(OutboxEventType.ORDER_CREATED, order);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCancelled(Order order) {
+        append(OutboxEventType.ORDER_CANCELLED, order);
+    }
+
+    /**
+     * Rend le stock réservé pour une commande qui n'a pas pu être enregistrée.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderAborted(Order order) {
+        append(OutboxEventType.ORDER_ABORTED, order);
+    }
+
+    private void append(OutboxEventType type, Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        OrderEvent event = new OrderEvent(
+                UUID.randomUUID().toString(),
+                type,
+                order.getId(),
+                order.getUserId(),
+                order.getItems().stream()
+                        .map(item -> new OrderEvent.Item(item.getProductId(), item.getQuantity()))
+                        .toList(),
+                now,
+                order.getReservationId());
+
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .eventId(event.getEventId())
+                    .type(type)
+                    .aggregateId(order.getId())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .createdAt(now)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de l'événement " + type + " impossible", e);
+        }
+        log.debug("Événement {} ajouté à l'outbox pour la commande {}", type, order.getId());
+    }
+}
@@ -0,0 +1,51 @@
+package com.secure.order.service;
+
+import com.secure.order.client.ProductDTO;
+import com.secure.order.client.StockItemRequest;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderItem;
+import com.secure.order.exception.ProductNotAvailableException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Règles communes aux chemins bloquant et réactif de création de commande.
+ */
+final class OrderItems {
+
+    private OrderItems() {
+    }
+
+    /**
+     * Construit les lignes de stock de la commande, une par produit (quantités cumulées).
+     */
+    static List<StockItemRequest> toStockRequests(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities.entrySet().stream()
+                .map(entry -> new StockItemRequest(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Valide l'existence de chaque produit et enrichit l'item avec son nom et son prix.
+     * Le stock n'est pas vérifié ici : il l'est par la réservation, qui fait foi.
+     */
+    static void applyProductData(Order order, Map<Long, ProductDTO> products) {
+        for (OrderItem item : order.getItems()) {
+            Long productId = item.getProductId();
+            ProductDTO product = products.get(productId);
+            if (product == null) {
+                throw new ProductNotAvailableException("Produit non trouvé avec l'ID: " + productId);
+            }
+
+            item.setProductName(product.getName());
+            item.setPrice(product.getPrice());
+            item.setOrder(order);
+        }
+    }
+}
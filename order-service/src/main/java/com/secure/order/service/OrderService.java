@@ -1,19 +1,30 @@
 package com.secure.order.service;
 
+import com.secure.order.client.ProductCache;
 import com.secure.order.client.ProductDTO;
 import com.secure.order.client.ProductServiceClient;
+import com.secure.order.client.StockItemRequest;
+import com.secure.order.client.StockReservationResult;
+import com.secure.order.dto.OrderPage;
 import com.secure.order.entity.Order;
-import com.secure.order.entity.OrderItem;
 import com.secure.order.entity.OrderStatus;
 import com.secure.order.exception.OrderNotFoundException;
 import com.secure.order.exception.ProductNotAvailableException;
 import com.secure.order.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Service métier pour la gestion des commandes.
@@ -26,78 +37,155 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductServiceClient productServiceClient;
+    private final ProductCache productCache;
+    private final OrderEventOutbox orderEventOutbox;
+    private final OrderStatsRollup orderStatsRollup;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.history.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${order.history.max-page-size:100}")
+    private int maxPageSize;
 
     /**
      * Crée une nouvelle commande.
-     * Vérifie la disponibilité des produits et décrémente le stock.
+     * Les produits sont vérifiés et le stock réservé sans transaction ; la commande est
+     * ensuite enregistrée une seule fois, déjà confirmée, dans une transaction courte.
+     * Si cet enregistrement échoue, le stock réservé est rendu ({@link #releaseReservation}).
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order createOrder(Order order, String userId, String username, String jwtToken) {
+        Order reserved = reserveOrder(order, userId, username, jwtToken);
+        try {
+            return transactionTemplate.execute(status -> saveOrder(reserved));
+        } catch (RuntimeException e) {
+            log.error("Stock réservé mais commande non enregistrée pour l'utilisateur {}: {}",
+                    username, e.getMessage());
+            releaseReservation(reserved);
+            throw e;
+        }
+    }
+
+    /**
+     * Prépare une commande sans connexion à la base : complète les lignes avec les
+     * produits et réserve le stock de toute la commande en un seul appel (tout-ou-rien).
+     * La commande rendue est confirmée mais pas encore enregistrée.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Order reserveOrder(Order order, String userId, String username, String jwtToken) {
         log.info("Création d'une commande pour l'utilisateur: {}", username);
 
         order.setUserId(userId);
         order.setUsername(username);
-        order.setStatus(OrderStatus.PENDING);
-
-        // Valider chaque item et récupérer les informations du produit
-        for (OrderItem item : order.getItems()) {
-            Long productId = item.getProductId();
-            Integer quantity = item.getQuantity();
-
-            // Récupérer le produit depuis le service Produit
-            ProductDTO product = productServiceClient.getProduct(productId, jwtToken)
-                    .orElseThrow(() -> new ProductNotAvailableException(
-                            "Produit non trouvé avec l'ID: " + productId));
-
-            // Vérifier la disponibilité du stock
-            if (!productServiceClient.checkStockAvailability(productId, quantity, jwtToken)) {
-                throw new ProductNotAvailableException(
-                        String.format("Stock insuffisant pour le produit '%s'. Quantité demandée: %d",
-                                product.getName(), quantity));
-            }
 
-            // Enrichir l'item avec les informations du produit
-            item.setProductName(product.getName());
-            item.setPrice(product.getPrice());
-            item.setOrder(order);
+        // Récupérer les produits depuis le cache local, les absents en un seul appel groupé
+        List<StockItemRequest> requestedItems = OrderItems.toStockRequests(order);
+        Map<Long, ProductDTO> products = productCache
+                .getProducts(requestedItems, jwtToken)
+                .orElseThrow(() -> new ProductNotAvailableException(
+                        "Le service Produit est indisponible, la commande ne peut pas être validée"));
+
+        // Valider chaque item et l'enrichir avec les informations du produit
+        OrderItems.applyProductData(order, products);
+
+        order.setReservationId(UUID.randomUUID().toString());
+        StockReservationResult reservation = productServiceClient.reserveStock(
+                order.getReservationId(), requestedItems, jwtToken);
+        if (!reservation.isReserved()) {
+            if (reservation.isUncertain()) {
+                releaseReservation(order);
+            }
+            throw new ProductNotAvailableException(reservation.getMessage());
         }
 
-        // Calculer le montant total
-        order.calculateTotalAmount();
+        order.setStatus(OrderStatus.CONFIRMED);
+        return order;
+    }
 
-        // Sauvegarder la commande
+    /**
+     * Enregistre une commande préparée par {@link #reserveOrder} : un seul INSERT par
+     * table (le total est calculé au {@code @PrePersist}) et l'événement ORDER_CREATED,
+     * publié après commit par le relais de l'outbox.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Order saveOrder(Order order) {
         Order savedOrder = orderRepository.save(order);
+        orderEventOutbox.orderCreated(savedOrder);
+        orderStatsRollup.orderCreated(savedOrder);
         log.info("Commande créée avec succès, ID: {}", savedOrder.getId());
+        return savedOrder;
+    }
 
-        // Décrémenter le stock pour chaque produit
-        for (OrderItem item : savedOrder.getItems()) {
-            boolean decremented = productServiceClient.decrementStock(
-                    item.getProductId(), item.getQuantity(), jwtToken);
-            if (!decremented) {
-                log.warn("Échec de la décrémentation du stock pour le produit: {}", item.getProductId());
-            }
+    /**
+     * Rend le stock d'une commande réservée par {@link #reserveOrder} mais pas
+     * enregistrée, ou dont la réservation est restée sans réponse : l'événement
+     * ORDER_ABORTED, écrit dans sa propre transaction, est relayé au service Produit
+     * comme les autres. Une réservation jamais appliquée y est marquée rendue, et ne
+     * peut plus l'être ensuite. Un échec est journalisé sans masquer l'erreur
+     * d'origine de l'appelant.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void releaseReservation(Order order) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> orderEventOutbox.orderAborted(order));
+            log.warn("Commande non enregistrée pour l'utilisateur {}, stock réservé rendu", order.getUsername());
+        } catch (RuntimeException e) {
+            log.error("Stock réservé mais non rendu pour l'utilisateur {}: {}", order.getUsername(), e.getMessage());
         }
-
-        // Confirmer la commande
-        savedOrder.setStatus(OrderStatus.CONFIRMED);
-        return orderRepository.save(savedOrder);
     }
 
     /**
-     * Récupère les commandes d'un utilisateur.
+     * Récupère une page de l'historique d'un utilisateur, de la plus récente à la plus ancienne.
      */
     @Transactional(readOnly = true)
-    public List<Order> getOrdersByUserId(String userId) {
+    public OrderPage getOrdersByUserId(String userId, String cursor, Integer size) {
         log.info("Récupération des commandes pour l'utilisateur: {}", userId);
-        return orderRepository.findByUserIdOrderByOrderDateDesc(userId);
+        Limit limit = pageLimit(size);
+        List<Order> orders;
+        if (cursor == null) {
+            orders = orderRepository.findPageByUserId(userId, limit);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageByUserIdBefore(userId, position.orderDate(), position.id(), limit);
+        }
+        return toPage(orders, limit.max() - 1);
     }
 
     /**
-     * Récupère toutes les commandes (ADMIN).
+     * Récupère une page de toutes les commandes (ADMIN), de la plus récente à la plus ancienne.
      */
     @Transactional(readOnly = true)
-    public List<Order> getAllOrders() {
+    public OrderPage getAllOrders(String cursor, Integer size) {
         log.info("Récupération de toutes les commandes");
-        return orderRepository.findAll();
+        Limit limit = pageLimit(size);
+        List<Order> orders;
+        if (cursor == null) {
+            orders = orderRepository.findPage(limit);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageBefore(position.orderDate(), position.id(), limit);
+        }
+        return toPage(orders, limit.max() - 1);
+    }
+
+    /**
+     * Limite de la requête : taille de page demandée (bornée) plus une ligne pour
+     * détecter l'existence d'une page suivante.
+     */
+    private Limit pageLimit(Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return Limit.of(pageSize + 1);
+    }
+
+    private OrderPage toPage(List<Order> orders, int pageSize) {
+        List<Order> page = new ArrayList<>(orders.subList(0, Math.min(orders.size(), pageSize)));
+        // Le premier accès charge les items de toute la page en une requête IN (@BatchSize)
+        if (!page.isEmpty()) {
+            Hibernate.initialize(page.get(0).getItems());
+        }
+        String nextCursor = orders.size() > pageSize ? OrderCursor.of(page.get(pageSize - 1)).encode() : null;
+        return new OrderPage(page, nextCursor);
     }
 
     /**
@@ -112,16 +200,30 @@ public class OrderService {
 
     /**
      * Met à jour le statut d'une commande.
+     * Un passage au statut CANCELLED déclenche la restauration du stock, comme une annulation,
+     * et il est refusé pour une commande livrée.
      */
     public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
         log.info("Mise à jour du statut de la commande {} vers {}", orderId, newStatus);
         Order order = getOrderById(orderId);
+        OrderStatus previousStatus = order.getStatus();
+        boolean cancelled = newStatus == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED;
+        if (cancelled) {
+            checkNotDelivered(order);
+        }
         order.setStatus(newStatus);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        orderStatsRollup.statusChanged(savedOrder, previousStatus);
+        if (cancelled) {
+            orderEventOutbox.orderCancelled(savedOrder);
+        }
+        return savedOrder;
     }
 
     /**
      * Annule une commande.
+     * Le stock est restauré de manière asynchrone par le service Produit, à la
+     * réception de l'événement ORDER_CANCELLED écrit dans la même transaction.
      */
     public Order cancelOrder(Long orderId, String jwtToken) {
         log.info("Annulation de la commande ID: {}", orderId);
@@ -131,15 +233,25 @@ public class OrderService {
             throw new IllegalStateException("La commande est déjà annulée");
         }
 
-        if (order.getStatus() == OrderStatus.DELIVERED) {
-            throw new IllegalStateException("Impossible d'annuler une commande déjà livrée");
-        }
+        checkNotDelivered(order);
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
-
-        // Note: La restauration du stock serait gérée ici si nécessaire
+        Order cancelledOrder = orderRepository.save(order);
+        orderEventOutbox.orderCancelled(cancelledOrder);
+        orderStatsRollup.statusChanged(cancelledOrder, previousStatus);
         log.info("Commande {} annulée avec succès", orderId);
 
-        return orderRepository.save(order);
+        return cancelledOrder;
+    }
+
+    /**
+     * Une commande livrée n'est plus annulable : son annulation restaurerait le stock
+     * de marchandises déjà parties.
+     */
+    private static void checkNotDelivered(Order order) {
+        if (order.getStatus() == OrderStatus.DELIVERED) {
+            throw new IllegalStateException("Impossible d'annuler une commande déjà livrée");
+        }
     }
 }
@@ -0,0 +1,191 @@
+package com.secure.order.service;
+
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderItem;
+import com.secure.order.entity.OrderStatsDelta;
+import com.secure.order.entity.OrderStatsHourly;
+import com.secure.order.entity.OrderStatus;
+import com.secure.order.entity.ProductSalesHourly;
+import com.secure.order.repository.OrderStatsDeltaRepository;
+import com.secure.order.repository.OrderStatsHourlyRepository;
+import com.secure.order.repository.ProductSalesHourlyRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenue incrémentale des agrégats horaires de commandes ({@code order_stats_hourly},
+ * {@code product_sales_hourly}).
+ * Chaque création ou changement de statut ajoute des variations dans la transaction
+ * de la commande ; un traitement périodique les reporte par lots dans les agrégats
+ * puis les supprime. Les agrégats ont donc quelques secondes de retard, mais aucune
+ * commande n'attend le verrou d'une ligne d'agrégat.
+ */
+@Component
+@Slf4j
+public class OrderStatsRollup {
+
+    private final OrderStatsDeltaRepository deltaRepository;
+    private final OrderStatsHourlyRepository orderStatsRepository;
+    private final ProductSalesHourlyRepository productSalesRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private record Key(LocalDateTime bucketStart, OrderStatus status, Long productId) {
+    }
+
+    private static final class Totals {
+        long orders;
+        long units;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        boolean isZero() {
+            return orders == 0 && units == 0 && revenue.signum() == 0;
+        }
+    }
+
+    public OrderStatsRollup(OrderStatsDeltaRepository deltaRepository,
+            OrderStatsHourlyRepository orderStatsRepository,
+            ProductSalesHourlyRepository productSalesRepository,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            @Value("${order.analytics.batch-size:1000}") int batchSize) {
+        this.deltaRepository = deltaRepository;
+        this.orderStatsRepository = orderStatsRepository;
+        this.productSalesRepository = productSalesRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Compte une nouvelle commande dans son statut courant.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        if (order.getOrderDate() == null) {
+            // La date de commande (tranche horaire) n'est attribuée qu'à l'insertion
+            entityManager.flush();
+        }
+        deltaRepository.saveAll(deltas(order, order.getStatus(), 1));
+    }
+
+    /**
+     * Fait passer une commande de son ancien statut au nouveau, dans la même tranche horaire.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Order order, OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus()) {
+            return;
+        }
+        List<OrderStatsDelta> deltas = deltas(order, previousStatus, -1);
+        deltas.addAll(deltas(order, order.getStatus(), 1));
+        deltaRepository.saveAll(deltas);
+    }
+
+    /**
+     * Reporte les variations en attente dans les agrégats, lot par lot.
+     */
+    @Scheduled(fixedDelayString = "${order.analytics.fold-interval:PT5S}")
+    public void fold() {
+        Integer folded;
+        do {
+            try {
+                folded = transactionTemplate.execute(status -> foldNextBatch());
+            } catch (DataIntegrityViolationException e) {
+                // Agrégat créé au même moment par une autre instance : le lot sera repris
+                log.warn("Report des statistiques de commandes reporté au prochain passage: {}", e.getMessage());
+                return;
+            }
+        } while (folded != null && folded == batchSize);
+    }
+
+    private int foldNextBatch() {
+        List<OrderStatsDelta> deltas = deltaRepository.findBatchForUpdate(Limit.of(batchSize));
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<Key, Totals> totals = new LinkedHashMap<>();
+        for (OrderStatsDelta delta : deltas) {
+            Totals sum = totals.computeIfAbsent(
+                    new Key(delta.getBucketStart(), delta.getStatus(), delta.getProductId()), key -> new Totals());
+            sum.orders += delta.getOrders();
+            sum.units += delta.getUnits();
+            sum.revenue = sum.revenue.add(delta.getRevenue());
+        }
+
+        totals.forEach((key, sum) -> {
+            if (sum.isZero()) {
+                return;
+            }
+            if (key.productId() == null) {
+                if (orderStatsRepository.add(key.bucketStart(), key.status(), sum.orders, sum.units, sum.revenue) == 0) {
+                    orderStatsRepository.save(OrderStatsHourly.builder()
+                            .bucketStart(key.bucketStart())
+                            .status(key.status())
+                            .orders(sum.orders)
+                            .units(sum.units)
+                            .revenue(sum.revenue)
+                            .build());
+                }
+            } else if (productSalesRepository.add(key.bucketStart(), key.status(), key.productId(),
+                    sum.units, sum.revenue) == 0) {
+                productSalesRepository.save(ProductSalesHourly.builder()
+                        .bucketStart(key.bucketStart())
+                        .status(key.status())
+                        .productId(key.productId())
+                        .units(sum.units)
+                        .revenue(sum.revenue)
+                        .build());
+            }
+        });
+        deltaRepository.deleteAllInBatch(deltas);
+        log.debug("{} variations de statistiques reportées dans {} agrégats", deltas.size(), totals.size());
+        return deltas.size();
+    }
+
+    /**
+     * Une ligne pour la commande et une par produit, signées par {@code sign}.
+     */
+    private static List<OrderStatsDelta> deltas(Order order, OrderStatus status, int sign) {
+        LocalDateTime bucketStart = order.getOrderDate().truncatedTo(ChronoUnit.HOURS);
+        BigDecimal signum = BigDecimal.valueOf(sign);
+        List<OrderStatsDelta> deltas = new ArrayList<>(order.getItems().size() + 1);
+        int units = 0;
+        for (OrderItem item : order.getItems()) {
+            units += item.getQuantity();
+            deltas.add(OrderStatsDelta.builder()
+                    .bucketStart(bucketStart)
+                    .status(status)
+                    .productId(item.getProductId())
+                    .units(sign * item.getQuantity())
+                    .revenue(item.getSubtotal().multiply(signum))
+                    .build());
+        }
+        deltas.add(OrderStatsDelta.builder()
+                .bucketStart(bucketStart)
+                .status(status)
+                .orders(sign)
+                .units(sign * units)
+                .revenue(order.getTotalAmount().multiply(signum))
+                .build());
+        return deltas;
+    }
+}
@@ -0,0 +1,190 @@
+package com.secure.order.service;
+
+import com.secure.order.controller.InternalEventController;
+import com.secure.order.entity.OutboxEvent;
+import com.secure.order.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Relais de l'outbox : publie par lots les événements de commande vers le service
+ * Produit, hors du chemin des requêtes.
+ * Les événements sont réservés dans une transaction courte, envoyés hors transaction,
+ * puis marqués publiés après l'accusé de réception. En cas d'échec ils sont renvoyés à
+ * la fin de leur réservation, le consommateur écartant les doublons par {@code eventId}.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    /**
+     * Refus liés au contenu du lot : renvoyer le même événement donnera le même résultat.
+     * Les autres statuts (401/403 d'un secret mal configuré, 408, 429, 5xx) sont
+     * traités comme une indisponibilité du service Produit.
+     */
+    private static final Set<HttpStatus> REFUSALS = Set.of(HttpStatus.BAD_REQUEST, HttpStatus.NOT_FOUND,
+            HttpStatus.CONFLICT, HttpStatus.UNPROCESSABLE_ENTITY);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WebClient webClient;
+    private final String secret;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            TransactionTemplate transactionTemplate,
+            WebClient.Builder webClientBuilder,
+            ClientHttpConnector productServiceConnector,
+            @Value("${product-service.url:http://localhost:8081}") String productServiceUrl,
+            @Value("${internal.events.secret:}") String secret,
+            @Value("${order.outbox.batch-size:100}") int batchSize,
+            @Value("${order.outbox.retention:7d}") Duration retention,
+            @Value("${order.outbox.lease:30s}") Duration lease,
+            @Value("${order.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.webClient = webClientBuilder
+                .clientConnector(productServiceConnector)
+                .baseUrl(productServiceUrl)
+                .build();
+        this.secret = secret;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Publie les lots en attente jusqu'à vider l'outbox ou rencontrer un échec.
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval:PT1S}")
+    public void relay() {
+        if (secret.isBlank()) {
+            return;
+        }
+        List<OutboxEvent> events;
+        do {
+            events = transactionTemplate.execute(status -> claimNextBatch());
+            if (events == null || events.isEmpty() || !publish(events)) {
+                return;
+            }
+        } while (events.size() == batchSize);
+    }
+
+    /**
+     * Supprime les événements publiés au-delà de la durée de rétention.
+     */
+    @Scheduled(cron = "${order.outbox.purge-cron:0 0 3 * * *}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(before));
+        log.info("Outbox purgée: {} événements publiés supprimés", deleted);
+    }
+
+    /**
+     * Réserve le prochain lot dans une transaction courte : les verrous sont relâchés
+     * avant l'envoi, et les autres instances ignorent le lot jusqu'à la fin de la réservation.
+     */
+    private List<OutboxEvent> claimNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.findPublishableForUpdate(now, Limit.of(batchSize));
+        LocalDateTime leaseUntil = now.plus(lease);
+        events.forEach(event -> event.setLeaseUntil(leaseUntil));
+        return events;
+    }
+
+    /**
+     * Envoie des événements réservés, hors transaction. Si le service Produit refuse
+     * le lot ({@link #REFUSALS}), ses événements sont renvoyés un par un pour isoler
+     * celui qui est en cause.
+     *
+     * @return faux si le service Produit est injoignable ou en erreur ; les événements
+     *         non publiés seront repris à la fin de leur réservation
+     */
+    private boolean publish(List<OutboxEvent> events) {
+        try {
+            send(events);
+        } catch (WebClientResponseException e) {
+            if (!REFUSALS.contains(HttpStatus.resolve(e.getStatusCode().value()))) {
+                log.warn("Publication de {} événements de commande impossible ({}), nouvel essai à la fin de la réservation",
+                        events.size(), e.getStatusCode());
+                return false;
+            }
+            if (events.size() == 1) {
+                reject(events.get(0), e);
+                return true;
+            }
+            log.warn("Lot de {} événements de commande refusé ({}), envoi un par un", events.size(), e.getStatusCode());
+            for (OutboxEvent event : events) {
+                if (!publish(List.of(event))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Publication de {} événements de commande impossible, nouvel essai à la fin de la réservation: {}",
+                    events.size(), e.getMessage());
+            return false;
+        }
+
+        List<Long> ids = events.stream().map(OutboxEvent::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markPublished(ids, now));
+        log.debug("{} événements de commande publiés", events.size());
+        return true;
+    }
+
+    private void send(List<OutboxEvent> events) {
+        // Les payloads sont déjà sérialisés : le lot est assemblé sans les relire
+        String body = events.stream()
+                .map(OutboxEvent::getPayload)
+                .collect(Collectors.joining(",", "{\"events\":[", "]}"));
+        webClient.post()
+                .uri("/internal/events/orders")
+                .header(InternalEventController.TOKEN_HEADER, secret)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Compte un refus ; au-delà de {@code maxAttempts}, l'événement est mis de côté
+     * pour ne plus bloquer les suivants. Sinon il est repris à la fin de sa réservation.
+     */
+    private void reject(OutboxEvent event, WebClientResponseException error) {
+        String message = error.getStatusCode() + " " + error.getResponseBodyAsString();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(event.getId())
+                .ifPresent(stored -> {
+                    stored.setAttempts(stored.getAttempts() + 1);
+                    stored.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                    if (stored.getAttempts() >= maxAttempts) {
+                        stored.setParkedAt(LocalDateTime.now());
+                        log.error("Événement {} mis de côté après {} refus: {}",
+                                stored.getEventId(), stored.getAttempts(), message);
+                    } else {
+                        log.warn("Événement {} refusé ({}e tentative): {}",
+                                stored.getEventId(), stored.getAttempts(), message);
+                    }
+                }));
+    }
+}
@@ -0,0 +1,133 @@
+package com.secure.order.service;
+
+import com.secure.order.client.ProductCache;
+import com.secure.order.client.ProductDTO;
+import com.secure.order.client.ProductServiceClient;
+import com.secure.order.client.StockItemRequest;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderStatus;
+import com.secure.order.exception.ProductNotAvailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Chemin réactif de création de commande (activé par {@code order.reactive.enabled}).
+ * Les appels au service Produit ne bloquent aucun thread : les produits absents du
+ * cache local sont découpés en lots interrogés en parallèle avec une concurrence bornée, puis le
+ * stock est réservé. Seules les écritures JPA s'exécutent sur un thread élastique :
+ * l'enregistrement final ({@link OrderService#saveOrder}) et, s'il échoue ou si la
+ * réservation est restée sans réponse, la libération du stock
+ * ({@link OrderService#releaseReservation}).
+ */
+@Service
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+@Slf4j
+public class ReactiveOrderService {
+
+    private final OrderService orderService;
+    private final ProductServiceClient productServiceClient;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int lookupBatchSize;
+    private final int lookupConcurrency;
+
+    public ReactiveOrderService(OrderService orderService,
+            ProductServiceClient productServiceClient,
+            ProductCache productCache,
+            TransactionTemplate transactionTemplate,
+            @Value("${order.reactive.lookup-batch-size:50}") int lookupBatchSize,
+            @Value("${order.reactive.lookup-concurrency:4}") int lookupConcurrency) {
+        this.orderService = orderService;
+        this.productServiceClient = productServiceClient;
+        this.productCache = productCache;
+        this.transactionTemplate = transactionTemplate;
+        this.lookupBatchSize = lookupBatchSize;
+        this.lookupConcurrency = lookupConcurrency;
+    }
+
+    /**
+     * Crée une nouvelle commande sans bloquer le thread appelant.
+     * Vérifie l'existence des produits, réserve le stock en tout-ou-rien puis
+     * enregistre la commande confirmée.
+     */
+    public Mono<Order> createOrder(Order order, String userId, String username, String jwtToken) {
+        log.info("Création réactive d'une commande pour l'utilisateur: {}", username);
+
+        order.setUserId(userId);
+        order.setUsername(username);
+        order.setStatus(OrderStatus.PENDING);
+        order.setReservationId(UUID.randomUUID().toString());
+
+        List<StockItemRequest> requestedItems = OrderItems.toStockRequests(order);
+        long cacheGeneration = productCache.generation();
+        Map<Long, ProductDTO> cached = productCache.getCached(
+                requestedItems.stream().map(StockItemRequest::getProductId).toList());
+
+        return Flux.fromIterable(requestedItems)
+                .filter(item -> !cached.containsKey(item.getProductId()))
+                .buffer(lookupBatchSize)
+                .flatMap(chunk -> productServiceClient.getProductsAvailabilityAsync(chunk, jwtToken), lookupConcurrency)
+                .onErrorMap(e -> !(e instanceof ProductNotAvailableException), e -> new ProductNotAvailableException(
+                        "Le service Produit est indisponible, la commande ne peut pas être validée"))
+                .map(fetched -> productCache.putAll(fetched, cacheGeneration))
+                .reduce(cached, (products, fetched) -> {
+                    products.putAll(fetched);
+                    return products;
+                })
+                .doOnNext(products -> OrderItems.applyProductData(order, products))
+                .then(Mono.defer(() -> productServiceClient.reserveStockAsync(
+                        order.getReservationId(), requestedItems, jwtToken)))
+                .onErrorMap(e -> !(e instanceof ProductNotAvailableException), e -> new ProductNotAvailableException(
+                        "Le service Produit est indisponible, le stock n'a pas pu être réservé"))
+                .flatMap(reservation -> {
+                    if (reservation.isReserved()) {
+                        return persistConfirmedOrder(order);
+                    }
+                    if (reservation.isUncertain()) {
+                        return releaseUncertainReservation(order, reservation.getMessage());
+                    }
+                    return Mono.error(new ProductNotAvailableException(reservation.getMessage()));
+                })
+                // Appelant transmis aux appels au service Produit, faits hors du thread de la requête
+                .contextWrite(ProductServiceClient.withCurrentCaller());
+    }
+
+    /**
+     * Rend, par l'outbox, une réservation restée sans réponse : le service Produit a pu
+     * l'appliquer. L'écriture se fait sur un thread élastique, puis la commande est refusée.
+     */
+    private Mono<Order> releaseUncertainReservation(Order order, String message) {
+        return Mono.fromRunnable(() -> orderService.releaseReservation(order))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.error(new ProductNotAvailableException(message)));
+    }
+
+    /**
+     * Enregistre la commande confirmée par {@link OrderService#saveOrder}, le même
+     * chemin d'écriture que la création bloquante, dans une transaction courte hors des
+     * threads d'entrée/sortie. En cas d'échec, la réservation est rendue sur ce même
+     * thread élastique, avant que l'erreur ne soit propagée.
+     */
+    private Mono<Order> persistConfirmedOrder(Order order) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> {
+                    order.setStatus(OrderStatus.CONFIRMED);
+                    return orderService.saveOrder(order);
+                }))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(e -> {
+                    log.error("Stock réservé mais commande non enregistrée pour l'utilisateur {}: {}",
+                            order.getUsername(), e.getMessage());
+                    orderService.releaseReservation(order);
+                });
+    }
+}
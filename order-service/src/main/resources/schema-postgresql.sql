@@ -0,0 +1,45 @@
+-- ==========================================
+-- Identifiants par séquence (optimiseur pooled, pas de 50)
+-- ==========================================
+-- Exécuté à chaque démarrage, avant Hibernate (séparateur : @@).
+-- Les tables créées avec des colonnes IDENTITY gardent leur séquence
+-- (orders_id_seq, order_items_id_seq) : elle passe au pas de 50
+-- attendu par Hibernate. Les blocs suivants commencent
+-- après le dernier identifiant attribué, et une instance encore en IDENTITY pendant
+-- un déploiement progressif tire dans la même séquence, sans collision.
+-- Sur une base neuve, Hibernate crée lui-même ces séquences au pas de 50.
+DO $$
+DECLARE
+    target TEXT;
+BEGIN
+    FOREACH target IN ARRAY ARRAY['orders', 'order_items'] LOOP
+        IF EXISTS (SELECT 1 FROM pg_sequences
+                   WHERE schemaname = current_schema() AND sequencename = target || '_id_seq'
+                     AND increment_by <> 50) THEN
+            IF EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = target
+                         AND column_name = 'id' AND is_identity = 'YES') THEN
+                EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', target);
+            ELSE
+                EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', target || '_id_seq');
+            END IF;
+        END IF;
+    END LOOP;
+END
+$$@@
+
+-- ==========================================
+-- Événements ORDER_ABORTED sans commande
+-- ==========================================
+-- Le stock réservé pour une commande qui n'a pas pu être enregistrée est rendu par un
+-- événement de l'outbox sans commande associée : aggregate_id devient facultatif
+-- (ddl-auto: update ne retire pas une contrainte NOT NULL existante).
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'outbox_events'
+                 AND column_name = 'aggregate_id' AND is_nullable = 'NO') THEN
+        ALTER TABLE outbox_events ALTER COLUMN aggregate_id DROP NOT NULL;
+    END IF;
+END
+$$@@
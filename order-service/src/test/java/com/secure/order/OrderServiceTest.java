@@ -1,19 +1,46 @@
 package com.secure.order;
 
+import com.secure.order.client.ProductAvailabilityDTO;
+import com.secure.order.client.ProductCache;
+import com.secure.order.controller.InternalEventController;
+import com.secure.order.dto.OrderPage;
+import com.secure.order.dto.RevenueBucket;
+import com.secure.order.entity.IdempotencyRecord;
 import com.secure.order.entity.Order;
 import com.secure.order.entity.OrderItem;
 import com.secure.order.entity.OrderStatus;
+import com.secure.order.entity.OutboxEvent;
+import com.secure.order.entity.OutboxEventType;
+import com.secure.order.event.ProductChangedEvent;
+import com.secure.order.exception.IdempotencyConflictException;
+import com.secure.order.exception.InvalidCursorException;
 import com.secure.order.exception.OrderNotFoundException;
+import com.secure.order.exception.ProductNotAvailableException;
+import com.secure.order.repository.IdempotencyRecordRepository;
 import com.secure.order.repository.OrderRepository;
+import com.secure.order.repository.OrderStatsDeltaRepository;
+import com.secure.order.repository.OrderStatsHourlyRepository;
+import com.secure.order.repository.OutboxEventRepository;
+import com.secure.order.repository.ProductSalesHourlyRepository;
+import com.secure.order.service.IdempotencyService;
+import com.secure.order.service.OrderAnalyticsService;
 import com.secure.order.service.OrderService;
+import com.secure.order.service.OrderStatsRollup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,9 +57,47 @@ public class OrderServiceTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private InternalEventController internalEventController;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderStatsRollup orderStatsRollup;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Autowired
+    private OrderStatsDeltaRepository orderStatsDeltaRepository;
+
+    @Autowired
+    private OrderStatsHourlyRepository orderStatsHourlyRepository;
+
+    @Autowired
+    private ProductSalesHourlyRepository productSalesHourlyRepository;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+        orderStatsDeltaRepository.deleteAll();
+        orderStatsHourlyRepository.deleteAll();
+        productSalesHourlyRepository.deleteAll();
     }
 
     @Test
@@ -77,6 +142,34 @@ public class OrderServiceTest {
         assertTrue(userOrders.stream().allMatch(o -> o.getUserId().equals("user-1")));
     }
 
+    @Test
+    void testPaginateOrderHistory() {
+        // Given
+        orderRepository.saveAll(List.of(
+                createTestOrder("user-1", "client1"),
+                createTestOrder("user-1", "client1"),
+                createTestOrder("user-1", "client1"),
+                createTestOrder("user-2", "client2")));
+
+        // When
+        OrderPage firstPage = orderService.getOrdersByUserId("user-1", null, 2);
+        OrderPage lastPage = orderService.getOrdersByUserId("user-1", firstPage.getNextCursor(), 2);
+
+        // Then
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(1, lastPage.getItems().size());
+        assertNull(lastPage.getNextCursor());
+        assertEquals(1, lastPage.getItems().get(0).getItems().size());
+        assertTrue(firstPage.getItems().stream().noneMatch(o -> o.getId().equals(lastPage.getItems().get(0).getId())));
+    }
+
+    @Test
+    void testRejectInvalidOrderCursor() {
+        assertThrows(InvalidCursorException.class,
+                () -> orderService.getOrdersByUserId("user-1", "pas-un-curseur", 2));
+    }
+
     @Test
     void testFindOrdersByStatus() {
         // Given
@@ -193,6 +286,240 @@ public class OrderServiceTest {
         assertEquals(OrderStatus.CANCELLED, cancelledOrder.getStatus());
     }
 
+    @Test
+    void testProductCacheInvalidation() {
+        // Given
+        productCache.putAll(List.of(cachedProduct(42L)), productCache.generation());
+        assertEquals("Produit en cache", productCache.getCached(List.of(42L)).get(42L).getName());
+
+        // When
+        productCache.invalidate(42L);
+
+        // Then
+        assertTrue(productCache.getCached(List.of(42L)).isEmpty());
+    }
+
+    @Test
+    void testProductCacheDropsProductLoadedBeforeInvalidation() {
+        // Given - chargement commencé avant l'événement
+        long generation = productCache.generation();
+
+        // When
+        productCache.invalidate(43L);
+        productCache.putAll(List.of(cachedProduct(43L)), generation);
+
+        // Then
+        assertTrue(productCache.getCached(List.of(43L)).isEmpty());
+    }
+
+    @Test
+    void testProductChangedEventInvalidatesCache() {
+        // Given
+        productCache.putAll(List.of(cachedProduct(44L)), productCache.generation());
+        ProductChangedEvent event = new ProductChangedEvent(44L, ProductChangedEvent.Type.UPDATED, Instant.now());
+
+        // When / Then - secret invalide : le cache est conservé
+        assertEquals(HttpStatus.UNAUTHORIZED,
+                internalEventController.onProductChanged("mauvais-secret", event).getStatusCode());
+        assertFalse(productCache.getCached(List.of(44L)).isEmpty());
+
+        // When / Then
+        assertEquals(HttpStatus.NO_CONTENT,
+                internalEventController.onProductChanged("test-internal-events", event).getStatusCode());
+        assertTrue(productCache.getCached(List.of(44L)).isEmpty());
+    }
+
+    @Test
+    void testCancelOrderWritesOutboxEvent() {
+        // Given
+        Order savedOrder = orderRepository.save(createTestOrder("user-1", "client1"));
+
+        // When
+        orderService.cancelOrder(savedOrder.getId(), "token");
+
+        // Then
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(OutboxEventType.ORDER_CANCELLED, events.get(0).getType());
+        assertEquals(savedOrder.getId(), events.get(0).getAggregateId());
+        assertNull(events.get(0).getPublishedAt());
+        assertTrue(events.get(0).getPayload().contains("\"productId\":1"));
+    }
+
+    @Test
+    void testSaveOrderWritesConfirmedOrderOnce() {
+        // Given
+        Order order = createTestOrder("user-1", "client1");
+        order.setStatus(OrderStatus.CONFIRMED);
+
+        // When
+        Order savedOrder = transactionTemplate.execute(status -> orderService.saveOrder(order));
+
+        // Then
+        Order stored = orderRepository.findById(savedOrder.getId()).orElseThrow();
+        assertEquals(OrderStatus.CONFIRMED, stored.getStatus());
+        assertEquals(0L, stored.getVersion());
+        assertEquals(0, new BigDecimal("10.00").compareTo(stored.getTotalAmount()));
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(OutboxEventType.ORDER_CREATED, events.get(0).getType());
+
+        // L'écriture doit rejoindre une transaction existante
+        assertThrows(IllegalTransactionStateException.class,
+                () -> orderService.saveOrder(createTestOrder("user-1", "client1")));
+    }
+
+    @Test
+    void testReleaseReservationWritesAbortedEvent() {
+        // Given : une commande réservée dont l'enregistrement a échoué
+        Order order = createTestOrder("user-1", "client1");
+
+        // When
+        orderService.releaseReservation(order);
+
+        // Then
+        assertEquals(0, orderRepository.count());
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(OutboxEventType.ORDER_ABORTED, events.get(0).getType());
+        assertNull(events.get(0).getAggregateId());
+        assertTrue(events.get(0).getPayload().contains("\"productId\":1"));
+    }
+
+    @Test
+    void testUnansweredReservationIsReleased() {
+        // Given : produit en cache, service Produit injoignable au moment de la réservation
+        productCache.putAll(List.of(cachedProduct(45L)), productCache.generation());
+        Order order = createTestOrder("user-1", "client1");
+        order.getItems().get(0).setProductId(45L);
+
+        // When
+        assertThrows(ProductNotAvailableException.class,
+                () -> orderService.createOrder(order, "user-1", "client1", "token"));
+
+        // Then : la réservation a pu être appliquée, elle est rendue sous son identifiant
+        assertEquals(0, orderRepository.count());
+        assertNotNull(order.getReservationId());
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(OutboxEventType.ORDER_ABORTED, events.get(0).getType());
+        assertTrue(events.get(0).getPayload().contains("\"reservationId\":\"" + order.getReservationId() + "\""));
+    }
+
+    @Test
+    void testAnalyticsRollupsFollowOrderStatus() {
+        // Given
+        Order order = createTestOrder("user-1", "client1");
+        order.getItems().get(0).setQuantity(3);
+        order.setStatus(OrderStatus.CONFIRMED);
+        Order savedOrder = transactionTemplate.execute(status -> orderService.saveOrder(order));
+        orderService.cancelOrder(savedOrder.getId(), "token");
+
+        // When
+        orderStatsRollup.fold();
+
+        // Then
+        LocalDateTime from = savedOrder.getOrderDate().minusDays(1);
+        LocalDateTime to = savedOrder.getOrderDate().plusDays(1);
+        List<RevenueBucket> buckets = orderAnalyticsService.getRevenue(from, to,
+                OrderAnalyticsService.Granularity.DAY, null);
+        RevenueBucket cancelled = buckets.stream()
+                .filter(bucket -> bucket.getStatus() == OrderStatus.CANCELLED)
+                .findFirst().orElseThrow();
+        assertEquals(1, cancelled.getOrders());
+        assertEquals(3, cancelled.getUnits());
+        assertEquals(0, new BigDecimal("30.00").compareTo(cancelled.getRevenue()));
+        assertTrue(buckets.stream()
+                .filter(bucket -> bucket.getStatus() == OrderStatus.CONFIRMED)
+                .allMatch(bucket -> bucket.getOrders() == 0 && bucket.getRevenue().signum() == 0));
+
+        assertTrue(orderAnalyticsService.getProductSales(from, to, null, 10).isEmpty());
+        assertEquals(3L, orderAnalyticsService.getProductSales(from, to, OrderStatus.CANCELLED, 10)
+                .get(0).getUnits());
+        assertEquals(0, orderStatsDeltaRepository.count());
+    }
+
+    @Test
+    void testDeliveredOrderCannotBeCancelledThroughStatusUpdate() {
+        // Given
+        Order order = createTestOrder("user-1", "client1");
+        order.setStatus(OrderStatus.DELIVERED);
+        Order savedOrder = orderRepository.save(order);
+
+        // When / Then
+        assertThrows(IllegalStateException.class,
+                () -> orderService.updateOrderStatus(savedOrder.getId(), OrderStatus.CANCELLED));
+        assertEquals(OrderStatus.DELIVERED, orderRepository.findById(savedOrder.getId()).orElseThrow().getStatus());
+        assertEquals(0, outboxEventRepository.count());
+        assertEquals(0, orderStatsDeltaRepository.count());
+    }
+
+    @Test
+    void testIdempotentCreateOrderRunsOnce() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        Order request = createTestOrder("user-1", "client1");
+
+        // When
+        Order first = idempotencyService.execute("user-1", "key-1", request,
+                () -> createTestOrder("user-1", "client1"), order -> {
+                    executions.incrementAndGet();
+                    return orderRepository.save(order);
+                }, order -> { });
+        Order replayed = idempotencyService.execute("user-1", "key-1", createTestOrder("user-1", "client1"),
+                () -> createTestOrder("user-1", "client1"), order -> {
+                    executions.incrementAndGet();
+                    return orderRepository.save(order);
+                }, order -> { });
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(first.getId(), replayed.getId());
+        assertEquals(1, orderRepository.count());
+
+        Order otherRequest = createTestOrder("user-1", "client1");
+        otherRequest.getItems().get(0).setQuantity(5);
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("user-1", "key-1", otherRequest, () -> otherRequest, order -> order,
+                        order -> { }));
+    }
+
+    @Test
+    void testTakenOverIdempotencyKeyFencesOriginalRequest() {
+        // Given
+        AtomicInteger releases = new AtomicInteger();
+        Order request = createTestOrder("user-1", "client1");
+        TransactionTemplate otherRequest = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        otherRequest.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // When : la clé est reprise par une autre requête pendant l'enregistrement
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("user-1", "key-2", request, () -> request, order -> {
+                    IdempotencyRecord record = idempotencyRecordRepository
+                            .findByUserIdAndIdempotencyKey("user-1", "key-2").orElseThrow();
+                    otherRequest.executeWithoutResult(status -> idempotencyRecordRepository
+                            .takeOver(record.getId(), record.getFencingToken(), LocalDateTime.now()));
+                    return orderRepository.save(order);
+                }, order -> releases.incrementAndGet()));
+
+        // Then : ni commande ni réponse, la réservation est rendue et la clé reste au repreneur
+        assertEquals(0, orderRepository.count());
+        assertEquals(1, releases.get());
+        IdempotencyRecord record = idempotencyRecordRepository
+                .findByUserIdAndIdempotencyKey("user-1", "key-2").orElseThrow();
+        assertEquals(1, record.getFencingToken());
+        assertNull(record.getResponseBody());
+    }
+
+    private ProductAvailabilityDTO cachedProduct(Long id) {
+        return ProductAvailabilityDTO.builder()
+                .id(id)
+                .name("Produit en cache")
+                .price(new BigDecimal("19.99"))
+                .stockQuantity(10)
+                .build();
+    }
+
     private Order createTestOrder(String userId, String username) {
         Order order = new Order();
         order.setUserId(userId);
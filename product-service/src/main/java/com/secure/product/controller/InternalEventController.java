@@ -0,0 +1,70 @@
+package com.secure.product.controller;
+
+import com.secure.product.event.OrderEvent;
+import com.secure.product.event.OrderEventBatch;
+import com.secure.product.event.ProductEventPublisher;
+import com.secure.product.service.OrderEventService;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Réception des événements internes envoyés par les autres services.
+ * Ces endpoints ne passent pas par Keycloak : ils sont authentifiés par le secret
+ * partagé {@code internal.events.secret} et ne sont pas exposés par le gateway.
+ */
+@RestController
+@RequestMapping("/internal/events")
+@Slf4j
+@Hidden
+public class InternalEventController {
+
+    private final OrderEventService orderEventService;
+    private final byte[] secret;
+
+    public InternalEventController(OrderEventService orderEventService,
+            @Value("${internal.events.secret:}") String secret) {
+        this.orderEventService = orderEventService;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Applique un lot d'événements de commande, dans l'ordre.
+     * Une erreur interrompt le lot : l'émetteur le renverra en entier, les
+     * événements déjà appliqués étant alors ignorés.
+     */
+    @PostMapping("/orders")
+    public ResponseEntity<Map<String, Integer>> onOrderEvents(
+            @RequestHeader(value = ProductEventPublisher.TOKEN_HEADER, required = false) String token,
+            @RequestBody OrderEventBatch batch) {
+        if (!isAuthorized(token)) {
+            log.warn("Événements de commande refusés: secret interne absent ou invalide");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        int applied = 0;
+        for (OrderEvent event : batch.getEvents()) {
+            if (orderEventService.handle(event)) {
+                applied++;
+            }
+        }
+        log.info("Lot de {} événements de commande reçu, {} appliqués", batch.getEvents().size(), applied);
+        return ResponseEntity.ok(Map.of("received", batch.getEvents().size(), "applied", applied));
+    }
+
+    private boolean isAuthorized(String token) {
+        return secret.length > 0 && token != null
+                && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
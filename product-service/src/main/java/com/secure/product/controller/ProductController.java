@@ -1,20 +1,34 @@
 package com.secure.product.controller;
 
+import com.secure.product.dto.BatchStockRequest;
+import com.secure.product.dto.ProductAvailability;
+import com.secure.product.dto.ProductPage;
 import com.secure.product.entity.Product;
 import com.secure.product.service.ProductService;
+import com.secure.product.service.StockDecrementBatcher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -31,18 +45,51 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final StockDecrementBatcher stockDecrementBatcher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.http-cache.shared-max-age:30s}")
+    private Duration sharedMaxAge;
 
     /**
-     * Liste tous les produits.
+     * Liste les produits page par page (curseur sur l'identifiant).
      * Accessible aux rôles ADMIN et CLIENT.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
-    @Operation(summary = "Lister tous les produits", description = "Retourne la liste de tous les produits du catalogue")
-    public ResponseEntity<List<Product>> getAllProducts(@AuthenticationPrincipal Jwt jwt) {
-        log.info("GET /api/products - Utilisateur: {}", jwt.getSubject());
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Lister les produits", description = "Retourne une page du catalogue ; passer nextCursor dans 'after' pour la page suivante")
+    public ResponseEntity<ProductPage> getAllProducts(@RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal Jwt jwt) {
+        log.info("GET /api/products?after={}&size={} - Utilisateur: {}", after, size, jwt.getSubject());
+        ProductPage page = productService.getProductsPage(after, size);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(page);
+    }
+
+    /**
+     * Exporte tout le catalogue en NDJSON (un produit par ligne), en flux.
+     * Accessible aux rôles ADMIN et CLIENT.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    @Operation(summary = "Exporter le catalogue", description = "Diffuse tout le catalogue au format NDJSON sans le charger en mémoire")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@AuthenticationPrincipal Jwt jwt) {
+        log.info("GET /api/products/export - Utilisateur: {}", jwt.getSubject());
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            productService.exportCatalog(product -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(product));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -55,7 +102,7 @@ public class ProductController {
     public ResponseEntity<Product> getProductById(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
         log.info("GET /api/products/{} - Utilisateur: {}", id, jwt.getSubject());
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(product);
     }
 
     /**
@@ -101,15 +148,35 @@ public class ProductController {
     }
 
     /**
-     * Recherche des produits par nom.
+     * Recherche des produits par nom et description, classés par pertinence.
+     * Le paramètre {@code name} reste accepté à la place de {@code q}.
      * Accessible aux rôles ADMIN et CLIENT.
      */
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
-    @Operation(summary = "Rechercher des produits", description = "Recherche des produits par nom")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name, @AuthenticationPrincipal Jwt jwt) {
-        log.info("GET /api/products/search?name={} - Utilisateur: {}", name, jwt.getSubject());
-        List<Product> products = productService.searchProductsByName(name);
+    @Operation(summary = "Rechercher des produits", description = "Recherche plein texte sur le nom et la description ; prefix=true pour l'autocomplétion")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        String terms = query != null ? query : name;
+        log.info("GET /api/products/search?q={} - Utilisateur: {}", terms, jwt.getSubject());
+        List<Product> products = productService.searchProducts(terms, prefix, limit);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(products);
+    }
+
+    /**
+     * Récupère plusieurs produits et la disponibilité de leur stock en un seul appel.
+     * Endpoint interne pour le service Commande.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    @Operation(summary = "Consulter plusieurs produits", description = "Retourne les produits demandés et la disponibilité des quantités")
+    public ResponseEntity<List<ProductAvailability>> getProductsAvailability(
+            @Valid @RequestBody BatchStockRequest request) {
+        log.info("POST /api/products/batch - {} lignes", request.getItems().size());
+        List<ProductAvailability> products = productService.getProductsAvailability(request.getItems());
         return ResponseEntity.ok(products);
     }
 
@@ -135,7 +202,20 @@ public class ProductController {
     @Operation(summary = "Décrémenter le stock", description = "Réduit le stock d'un produit (appelé par le service Commande)")
     public ResponseEntity<Void> decrementStock(@PathVariable Long id, @RequestBody Map<String, Integer> request) {
         log.info("PUT /api/products/{}/stock/decrement - quantité: {}", id, request.get("quantity"));
-        productService.decrementStock(id, request.get("quantity"));
+        stockDecrementBatcher.decrement(id, request.get("quantity"));
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Réserve le stock de tous les produits d'une commande, en tout-ou-rien.
+     * Endpoint interne appelé par le service Commande.
+     */
+    @PostMapping("/stock/reserve")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    @Operation(summary = "Réserver le stock", description = "Décrémente le stock de plusieurs produits en une transaction (appelé par le service Commande)")
+    public ResponseEntity<Void> reserveStock(@Valid @RequestBody BatchStockRequest request) {
+        log.info("POST /api/products/stock/reserve - {} lignes", request.getItems().size());
+        productService.reserveStock(request.getReservationId(), request.getItems());
         return ResponseEntity.ok().build();
     }
 
@@ -151,4 +231,12 @@ public class ProductController {
         productService.incrementStock(id, request.get("quantity"));
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Lectures du catalogue réutilisables par le cache du gateway (s-maxage) mais
+     * pas par le navigateur, qui ne reçoit pas les invalidations.
+     */
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(Duration.ZERO).sMaxAge(sharedMaxAge);
+    }
 }
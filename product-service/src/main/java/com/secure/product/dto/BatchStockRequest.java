@@ -0,0 +1,31 @@
+package com.secure.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Requête groupée portant sur plusieurs produits (une commande entière).
+ * {@code reservationId}, généré par le service Commande, rend la réservation
+ * idempotente ; il est ignoré par la vérification de disponibilité.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchStockRequest {
+
+    @Size(max = 36, message = "L'identifiant de réservation ne peut pas dépasser 36 caractères")
+    private String reservationId;
+
+    @NotEmpty(message = "La liste des produits ne peut pas être vide")
+    @Size(max = 500, message = "Une requête groupée ne peut pas dépasser 500 produits")
+    @Valid
+    private List<StockItemRequest> items;
+}
@@ -0,0 +1,38 @@
+package com.secure.product.dto;
+
+import com.secure.product.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Données d'un produit accompagnées de la disponibilité de la quantité demandée.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAvailability {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer requestedQuantity;
+    private boolean available;
+
+    public static ProductAvailability of(Product product, int requestedQuantity) {
+        return ProductAvailability.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .requestedQuantity(requestedQuantity)
+                .available(product.getStockQuantity() >= requestedQuantity)
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.secure.product.dto;
+
+import com.secure.product.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page du catalogue paginée par curseur sur l'identifiant.
+ * {@code nextCursor} est à passer en paramètre {@code after} pour obtenir la page suivante ;
+ * il vaut null sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> items;
+    private Long nextCursor;
+}
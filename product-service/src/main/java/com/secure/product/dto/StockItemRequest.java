@@ -0,0 +1,25 @@
+package com.secure.product.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ligne de demande de stock : un produit et la quantité souhaitée.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockItemRequest {
+
+    @NotNull(message = "L'identifiant du produit est obligatoire")
+    private Long productId;
+
+    @NotNull(message = "La quantité est obligatoire")
+    @Min(value = 1, message = "La quantité doit être au moins 1")
+    private Integer quantity;
+}
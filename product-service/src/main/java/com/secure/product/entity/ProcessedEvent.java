@@ -0,0 +1,30 @@
+package com.secure.product.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'un événement externe déjà traité.
+ * La clé primaire sur l'identifiant de l'événement garantit qu'il n'est appliqué
+ * qu'une fois, même livré plusieurs fois ou en parallèle.
+ */
+@Entity
+@Table(name = "processed_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedEvent {
+
+    @Id
+    @Column(name = "event_id", length = 36)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String type;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -3,6 +3,8 @@ package com.secure.product.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,17 +13,22 @@ import java.time.LocalDateTime;
 
 /**
  * Entité représentant un produit dans le catalogue.
+ * Mise en cache de second niveau dans la région {@value #CACHE_REGION}.
  */
 @Entity
 @Table(name = "products")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
 
+    public static final String CACHE_REGION = "products";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Le nom du produit est obligatoire")
@@ -43,6 +50,15 @@ public class Product {
     @Column(nullable = false)
     private Integer stockQuantity;
 
+    /**
+     * Nombre de compartiments de stock ({@link StockBucket}) pour un produit très demandé.
+     * Null ou 1 : le stock est porté par {@code stockQuantity} seul.
+     */
+    @Min(value = 1, message = "Le nombre de compartiments de stock doit être au moins 1")
+    @Max(value = 64, message = "Le nombre de compartiments de stock ne peut pas dépasser 64")
+    @Column(name = "stock_buckets")
+    private Integer stockBuckets;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,35 @@
+package com.secure.product.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Compartiment de stock d'un produit réparti (voir {@link Product#getStockBuckets()}).
+ * Le stock d'un produit réparti est la somme de ses compartiments : les
+ * décrémentations concurrentes verrouillent des lignes différentes au lieu de
+ * se sérialiser sur la ligne du produit.
+ */
+@Entity
+@Table(name = "product_stock_buckets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_bucket_product_bucket", columnNames = {"product_id", "bucket"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_stock_buckets_id_seq")
+    @SequenceGenerator(name = "product_stock_buckets_id_seq", sequenceName = "product_stock_buckets_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** Numéro du compartiment, de 0 à {@code stockBuckets - 1}. */
+    @Column(nullable = false)
+    private Integer bucket;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,26 @@
+package com.secure.product.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Dernière séquence du journal de stock reportée dans la table {@code products}.
+ * Mise à jour dans la même transaction que les variations de stock : au redémarrage,
+ * seules les entrées du journal postérieures sont rejouées.
+ */
+@Entity
+@Table(name = "stock_ledger_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLedgerCheckpoint {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "journal_sequence", nullable = false)
+    private Long journalSequence;
+}
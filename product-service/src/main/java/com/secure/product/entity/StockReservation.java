@@ -0,0 +1,36 @@
+package com.secure.product.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réservation de stock identifiée par le service Commande.
+ * La clé primaire rend la réservation idempotente : un nouvel essai après un délai
+ * dépassé ne décrémente pas le stock une seconde fois. Une réservation rendue avant
+ * d'avoir été reçue est enregistrée directement à l'état {@link StockReservationStatus#RELEASED},
+ * ce qui interdit de l'appliquer ensuite.
+ */
+@Entity
+@Table(name = "stock_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @Column(name = "reservation_id", length = 36)
+    private String reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StockReservationStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+}
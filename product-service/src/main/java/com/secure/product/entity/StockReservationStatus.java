@@ -0,0 +1,9 @@
+package com.secure.product.entity;
+
+/**
+ * États d'une réservation de stock.
+ */
+public enum StockReservationStatus {
+    RESERVED,
+    RELEASED
+}
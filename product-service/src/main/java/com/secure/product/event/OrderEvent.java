@@ -0,0 +1,40 @@
+package com.secure.product.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Événement du cycle de vie d'une commande, reçu du service Commande.
+ * {@code eventId} est unique et sert à écarter les livraisons en double.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_CANCELLED = "ORDER_CANCELLED";
+    /** Réservation rendue : la commande n'a pas pu être enregistrée ({@code orderId} nul). */
+    public static final String ORDER_ABORTED = "ORDER_ABORTED";
+
+    private String eventId;
+    private String type;
+    private Long orderId;
+    private String userId;
+    private List<Item> items;
+    private LocalDateTime occurredAt;
+    /** Réservation de stock rendue par ORDER_CANCELLED et ORDER_ABORTED, absente des anciens événements. */
+    private String reservationId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,17 @@
+package com.secure.product.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lot d'événements de commande publié par le relais de l'outbox du service Commande.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventBatch {
+    private List<OrderEvent> events;
+}
@@ -0,0 +1,31 @@
+package com.secure.product.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Événement publié après la création, la modification ou la suppression d'un produit.
+ * Il est diffusé aux services abonnés pour invalider leurs caches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Long productId;
+    private Type type;
+    private Instant occurredAt;
+
+    public static ProductChangedEvent of(Long productId, Type type) {
+        return new ProductChangedEvent(productId, type, Instant.now());
+    }
+}
@@ -0,0 +1,72 @@
+package com.secure.product.event;
+
+import com.secure.common.datasource.ReplicaRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Diffuse les changements de produits aux services abonnés (cache produits du service
+ * Commande, cache de réponses du gateway...).
+ * L'envoi a lieu après le commit, hors du thread de la requête ; un abonné injoignable
+ * ne fait qu'allonger la fraîcheur de son cache jusqu'à l'expiration de son TTL.
+ * Avec des réplicas en lecture, les lectures repassent d'abord par le primaire le temps
+ * que les abonnés rechargent leur cache.
+ */
+@Component
+@Slf4j
+public class ProductEventPublisher {
+
+    public static final String TOKEN_HEADER = "X-Internal-Events-Token";
+
+    private final RestClient restClient;
+    private final List<String> subscribers;
+    private final String secret;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+
+    public ProductEventPublisher(RestClient.Builder restClientBuilder,
+            @Value("${product.events.subscribers:}") List<String> subscribers,
+            @Value("${internal.events.secret:}") String secret,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(2));
+        requestFactory.setReadTimeout(Duration.ofSeconds(2));
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.subscribers = subscribers.stream().filter(url -> !url.isBlank()).toList();
+        this.secret = secret;
+        this.replicaRouting = replicaRouting;
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty() || secret.isBlank()) {
+            return;
+        }
+        replicaRouting.ifAvailable(ReplicaRoutingDataSource::readFromPrimary);
+        for (String subscriber : subscribers) {
+            try {
+                restClient.post()
+                        .uri(subscriber + "/internal/events/products")
+                        .header(TOKEN_HEADER, secret)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(event)
+                        .retrieve()
+                        .toBodilessEntity();
+                log.debug("Événement {} du produit {} envoyé à {}", event.getType(), event.getProductId(), subscriber);
+            } catch (Exception e) {
+                log.warn("Impossible d'envoyer l'événement {} du produit {} à {}: {}",
+                        event.getType(), event.getProductId(), subscriber, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.secure.product.exception;
+
+/**
+ * Exception levée lorsqu'une réservation a déjà été rendue par le service Commande :
+ * elle ne peut plus être appliquée.
+ */
+public class ReservationReleasedException extends RuntimeException {
+
+    public ReservationReleasedException(String message) {
+        super(message);
+    }
+}
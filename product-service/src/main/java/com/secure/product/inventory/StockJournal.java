@@ -0,0 +1,143 @@
+package com.secure.product.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal en ajout seul des variations de stock du {@link StockLedger}.
+ * <p>
+ * Le journal est découpé en segments {@code stock-<première séquence>.journal} ; un
+ * segment n'est supprimé qu'une fois toutes ses entrées reportées en base. Chaque
+ * entrée occupe {@value #RECORD_SIZE} octets : séquence, produit, variation et CRC32
+ * des champs précédents. Une entrée incomplète ou corrompue (arrêt pendant l'écriture)
+ * termine la relecture de son segment.
+ * Non thread-safe : les appels sont sérialisés par le {@link StockLedger}.
+ */
+class StockJournal implements Closeable {
+
+    record Entry(long sequence, long productId, int delta) {
+    }
+
+    private static final int RECORD_SIZE = 24;
+    private static final int PAYLOAD_SIZE = 20;
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private FileChannel channel;
+
+    StockJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+    }
+
+    /**
+     * Relit toutes les entrées valides, dans l'ordre des segments.
+     */
+    List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path path : segments()) {
+            try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+                while (readFully(reader, buffer)) {
+                    buffer.flip();
+                    long sequence = buffer.getLong();
+                    long productId = buffer.getLong();
+                    int delta = buffer.getInt();
+                    if (buffer.getInt() != checksum(buffer.array())) {
+                        break;
+                    }
+                    entries.add(new Entry(sequence, productId, delta));
+                    buffer.clear();
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Écrit les entrées en une seule écriture, puis les force sur disque si
+     * {@code fsync} est actif.
+     */
+    void append(List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * entries.size());
+        for (Entry entry : entries) {
+            int start = buffer.position();
+            buffer.putLong(entry.sequence()).putLong(entry.productId()).putInt(entry.delta());
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), start, PAYLOAD_SIZE);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Ferme le segment courant et en ouvre un nouveau.
+     *
+     * @return les segments précédents, à supprimer une fois leurs entrées reportées en base
+     */
+    List<Path> roll(long nextSequence) throws IOException {
+        close();
+        Path next = directory.resolve(String.format("%s%020d%s", PREFIX, nextSequence, SUFFIX));
+        List<Path> sealed = segments().stream().filter(path -> !path.equals(next)).toList();
+        channel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return sealed;
+    }
+
+    void delete(List<Path> sealed) throws IOException {
+        for (Path path : sealed) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static boolean readFully(FileChannel reader, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (reader.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, PAYLOAD_SIZE);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,440 @@
+package com.secure.product.inventory;
+
+import com.secure.product.entity.StockLedgerCheckpoint;
+import com.secure.product.repository.ProductRepository;
+import com.secure.product.repository.StockLedgerCheckpointRepository;
+import com.secure.product.service.StockBucketService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock des produits tenu en mémoire, avec écriture différée en base
+ * ({@code product.stock.ledger.enabled=true}).
+ * <p>
+ * Les compteurs en mémoire font foi : une vérification ne touche pas la base et une
+ * décrémentation est un compare-and-set. Chaque variation est inscrite dans un
+ * {@link StockJournal} sur disque avant d'être confirmée, puis les variations cumulées
+ * par produit sont reportées dans {@code products} par lots, avec la séquence du journal
+ * atteinte ({@link StockLedgerCheckpoint}). Au démarrage, les entrées du journal
+ * postérieures à cette séquence sont rejouées. Pour un produit réparti, la variation est
+ * reportée dans ses compartiments ({@link StockBucketService#add}), jamais dans
+ * {@code stock_quantity}.
+ * <p>
+ * En cas de doute, le stock est sous-estimé, jamais survendu : une décrémentation est
+ * journalisée avant le commit de la transaction appelante (et compensée si elle est
+ * annulée), une remise en stock seulement après le commit.
+ * Les compteurs n'étant pas partagés, ce mode suppose une seule instance du service.
+ */
+@Component
+@ConditionalOnProperty(name = "product.stock.ledger.enabled", havingValue = "true")
+@Slf4j
+public class StockLedger {
+
+    private static final String STOCK_SQL = "SELECT p.stock_quantity + COALESCE((SELECT SUM(b.quantity) "
+            + "FROM product_stock_buckets b WHERE b.product_id = p.id), 0) FROM products p WHERE p.id = ?";
+    private static final String LOCK_STRIPED_SQL =
+            "SELECT id, stock_buckets FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private final ProductRepository productRepository;
+    private final StockLedgerCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    /** Lectures servies par le primaire, jamais par un réplica. */
+    private final TransactionTemplate primaryReads;
+    private final StockBucketService stockBucketService;
+    private final StockJournal journal;
+
+    private final ConcurrentMap<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    /** Protège le journal, la séquence et les variations en attente. */
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** Variations journalisées, pas encore reportées en base. */
+    private Map<Long, Integer> pending = new HashMap<>();
+    private long sequence;
+    /** Vrai si le segment courant contient des entrées non reportées. */
+    private boolean dirty;
+
+    public StockLedger(ProductRepository productRepository,
+            StockLedgerCheckpointRepository checkpointRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            StockBucketService stockBucketService,
+            MeterRegistry registry,
+            @Value("${product.stock.ledger.journal-dir:./data/stock-journal}") Path journalDir,
+            @Value("${product.stock.ledger.fsync:false}") boolean fsync) throws IOException {
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.primaryReads = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.primaryReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stockBucketService = stockBucketService;
+        this.journal = new StockJournal(journalDir, fsync);
+        Gauge.builder("product.stock.ledger.pending", this, StockLedger::pendingProducts)
+                .description("Produits dont les variations de stock ne sont pas encore reportées en base")
+                .register(registry);
+    }
+
+    /**
+     * Rejoue les entrées du journal non reportées en base, avant toute requête.
+     */
+    @PostConstruct
+    void recover() throws IOException {
+        long checkpoint = primaryReads.execute(status -> checkpointRepository.findById(StockLedgerCheckpoint.ID)
+                .map(StockLedgerCheckpoint::getJournalSequence)
+                .orElse(0L));
+        sequence = checkpoint;
+        for (StockJournal.Entry entry : journal.readAll()) {
+            if (entry.sequence() > checkpoint) {
+                pending.merge(entry.productId(), entry.delta(), Integer::sum);
+            }
+            sequence = Math.max(sequence, entry.sequence());
+        }
+        // Le stock en base n'inclut pas encore ces variations
+        pending.forEach((productId, delta) -> {
+            Integer stock = loadStock(productId);
+            if (stock != null) {
+                counters.put(productId, new AtomicInteger(stock + delta));
+            }
+        });
+
+        List<Path> sealed = journal.roll(sequence + 1);
+        dirty = !pending.isEmpty();
+        if (!dirty) {
+            journal.delete(sealed);
+        }
+        log.info("Registre de stock en mémoire actif: {} produits à reporter depuis le journal (séquence {})",
+                pending.size(), sequence);
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    /**
+     * Stock disponible d'un produit ; vide si le produit n'existe pas.
+     */
+    public OptionalInt stock(Long productId) {
+        AtomicInteger counter = counter(productId);
+        return counter == null ? OptionalInt.empty() : OptionalInt.of(counter.get());
+    }
+
+    /**
+     * Décrémente le stock d'un produit s'il est suffisant.
+     *
+     * @return faux si le produit est inconnu ou son stock insuffisant
+     */
+    public boolean tryDecrement(Long productId, int quantity) {
+        AtomicInteger counter = counter(productId);
+        if (counter == null || !compareAndDecrement(counter, quantity)) {
+            return false;
+        }
+        try {
+            append(Map.of(productId, -quantity));
+        } catch (UncheckedIOException e) {
+            counter.addAndGet(quantity);
+            throw e;
+        }
+        onRollback(() -> restore(Map.of(counter, quantity), Map.of(productId, quantity)));
+        return true;
+    }
+
+    /**
+     * Réserve en tout-ou-rien le stock de plusieurs produits.
+     *
+     * @return les produits inconnus ou en stock insuffisant ; vide si tout est réservé
+     */
+    public Set<Long> reserve(SortedMap<Long, Integer> quantities) {
+        Map<AtomicInteger, Integer> taken = new HashMap<>();
+        Set<Long> shortages = new LinkedHashSet<>();
+        quantities.forEach((productId, quantity) -> {
+            AtomicInteger counter = counter(productId);
+            if (counter != null && compareAndDecrement(counter, quantity)) {
+                taken.put(counter, quantity);
+            } else {
+                shortages.add(productId);
+            }
+        });
+        if (!shortages.isEmpty()) {
+            taken.forEach(AtomicInteger::addAndGet);
+            return shortages;
+        }
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        try {
+            append(deltas);
+        } catch (UncheckedIOException e) {
+            taken.forEach(AtomicInteger::addAndGet);
+            throw e;
+        }
+        onRollback(() -> restore(taken, quantities));
+        return shortages;
+    }
+
+    /**
+     * Remet du stock, après le commit de la transaction en cours.
+     */
+    public void increment(Long productId, int quantity) {
+        afterCommit(() -> {
+            AtomicInteger counter = counter(productId);
+            if (counter != null) {
+                append(Map.of(productId, quantity));
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    /**
+     * Fixe le stock d'un produit (modification par un administrateur), après le commit
+     * de la transaction en cours. La différence avec le stock courant est journalisée.
+     */
+    public void set(Long productId, int stock) {
+        afterCommit(() -> {
+            AtomicInteger counter = counter(productId);
+            if (counter == null) {
+                return;
+            }
+            int previous = counter.getAndSet(stock);
+            try {
+                append(Map.of(productId, stock - previous));
+            } catch (UncheckedIOException e) {
+                counter.addAndGet(previous - stock);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Oublie un produit supprimé, après le commit de la transaction en cours.
+     */
+    public void remove(Long productId) {
+        afterCommit(() -> counters.remove(productId));
+    }
+
+    /**
+     * Reporte en base les variations en attente, en une transaction avec la séquence
+     * du journal atteinte, puis supprime les segments du journal devenus inutiles.
+     */
+    @Scheduled(fixedDelayString = "${product.stock.ledger.flush-interval:PT0.5S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas;
+            long checkpoint;
+            List<Path> sealed;
+            journalLock.lock();
+            try {
+                if (!dirty) {
+                    return;
+                }
+                sealed = journal.roll(sequence + 1);
+                deltas = pending;
+                checkpoint = sequence;
+                pending = new HashMap<>();
+                dirty = false;
+            } catch (IOException e) {
+                log.error("Impossible d'ouvrir un nouveau segment du journal de stock", e);
+                return;
+            } finally {
+                journalLock.unlock();
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, Integer> changes = new TreeMap<>(deltas);
+                    changes.values().removeIf(delta -> delta == 0);
+                    if (!changes.isEmpty()) {
+                        for (Long productId : lockStriped(changes.keySet())) {
+                            stockBucketService.add(productId, changes.remove(productId));
+                        }
+                    }
+                    if (!changes.isEmpty()) {
+                        productRepository.addStockBatch(changes);
+                    }
+                    checkpointRepository.save(new StockLedgerCheckpoint(StockLedgerCheckpoint.ID, checkpoint));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Report du stock en base reporté ({} produits): {}", deltas.size(), e.getMessage());
+                journalLock.lock();
+                try {
+                    deltas.forEach((productId, delta) -> pending.merge(productId, delta, Integer::sum));
+                    dirty = true;
+                } finally {
+                    journalLock.unlock();
+                }
+                return;
+            }
+
+            log.debug("Stock reporté en base pour {} produits (séquence {})", deltas.size(), checkpoint);
+            try {
+                journal.delete(sealed);
+            } catch (IOException e) {
+                log.warn("Segments du journal de stock non supprimés: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Verrouille, dans l'ordre des identifiants, les lignes des produits à reporter :
+     * une modification concurrente ne peut pas changer leur répartition avant le commit.
+     *
+     * @return les produits répartis parmi eux
+     */
+    private List<Long> lockStriped(Set<Long> productIds) {
+        List<Long> striped = new ArrayList<>();
+        namedJdbcTemplate.query(LOCK_STRIPED_SQL, Map.of("ids", productIds), row -> {
+            int buckets = row.getInt("stock_buckets");
+            if (!row.wasNull() && buckets > 1) {
+                striped.add(row.getLong("id"));
+            }
+        });
+        return striped;
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        // Un produit sans compteur n'a aucune variation en attente : la base fait foi.
+        // La lecture se fait hors de computeIfAbsent, qui bloquerait les autres produits
+        // du même segment de la table ; si deux lectures se croisent, la première gagne.
+        Integer stock = loadStock(productId);
+        return stock == null ? null : counters.computeIfAbsent(productId, id -> new AtomicInteger(stock));
+    }
+
+    private Integer loadStock(Long productId) {
+        // La connexion d'une transaction readOnly peut être celle d'un réplica en retard
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primaryReads.execute(status -> loadStock(productId));
+        }
+        List<Integer> stock = jdbcTemplate.queryForList(STOCK_SQL, Integer.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    private static boolean compareAndDecrement(AtomicInteger counter, int quantity) {
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    /**
+     * Inscrit les variations dans le journal, puis les ajoute aux variations en attente.
+     */
+    private void append(Map<Long, Integer> deltas) {
+        journalLock.lock();
+        try {
+            List<StockJournal.Entry> entries = new ArrayList<>(deltas.size());
+            deltas.forEach((productId, delta) -> entries.add(new StockJournal.Entry(++sequence, productId, delta)));
+            try {
+                journal.append(entries);
+            } catch (IOException e) {
+                // Une entrée partiellement écrite masquerait les suivantes à la relecture
+                rollAfterFailure();
+                throw new UncheckedIOException("Écriture du journal de stock impossible", e);
+            }
+            deltas.forEach((productId, delta) -> pending.merge(productId, delta, Integer::sum));
+            dirty = true;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void rollAfterFailure() {
+        try {
+            journal.roll(sequence + 1);
+        } catch (IOException e) {
+            log.error("Impossible d'ouvrir un nouveau segment du journal de stock", e);
+        }
+    }
+
+    private void restore(Map<AtomicInteger, Integer> taken, Map<Long, Integer> quantities) {
+        taken.forEach(AtomicInteger::addAndGet);
+        append(quantities);
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Journal du registre ; visible du paquetage pour les tests.
+     */
+    StockJournal journal() {
+        return journal;
+    }
+
+    private int pendingProducts() {
+        journalLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository JPA des événements externes déjà traités.
+ */
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+}
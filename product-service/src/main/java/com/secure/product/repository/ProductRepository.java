@@ -1,29 +1,81 @@
 package com.secure.product.repository;
 
 import com.secure.product.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository JPA pour la gestion des produits.
+ * Les requêtes du catalogue sont mises en cache dans la région {@value #QUERY_CACHE_REGION} ;
+ * Hibernate les invalide à chaque écriture sur la table {@code products}.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String QUERY_CACHE_REGION = "products-queries";
+
+    /**
+     * Liste tous les produits du catalogue.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<Product> findAll();
+
+    /**
+     * Page du catalogue suivant l'identifiant {@code after} (pagination par curseur).
+     * S'appuie sur la clé primaire : le coût ne dépend pas de la position dans le catalogue.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("SELECT p FROM Product p WHERE p.id > :after ORDER BY p.id")
+    List<Product> findPageAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * Parcourt tout le catalogue par lots de {@code fetchSize} lignes, sans alimenter
+     * le cache de second niveau. À consommer dans une transaction, puis à fermer.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
 
     /**
      * Recherche les produits par nom (insensible à la casse).
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Product> findByNameContainingIgnoreCase(String name);
 
     /**
      * Recherche les produits avec stock disponible.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Product> findByStockQuantityGreaterThan(Integer minStock);
 
     /**
@@ -39,8 +91,16 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     int decrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 
     /**
-     * Vérifie la disponibilité du stock.
+     * Relit un produit en base en verrouillant sa ligne jusqu'à la fin de la transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Vérifie la disponibilité du stock, compartiments compris pour un produit réparti.
      */
-    @Query("SELECT CASE WHEN p.stockQuantity >= :quantity THEN true ELSE false END FROM Product p WHERE p.id = :id")
+    @Query("SELECT CASE WHEN p.stockQuantity + COALESCE((SELECT SUM(b.quantity) FROM StockBucket b "
+            + "WHERE b.productId = p.id), 0) >= :quantity THEN true ELSE false END FROM Product p WHERE p.id = :id")
     Optional<Boolean> isStockAvailable(@Param("id") Long id, @Param("quantity") Integer quantity);
 }
@@ -0,0 +1,26 @@
+package com.secure.product.repository;
+
+import com.secure.product.dto.StockItemRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opérations de stock groupées, exécutées hors JPQL pour profiter du batch JDBC.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Décrémente le stock de plusieurs produits en un seul batch d'UPDATE conditionnels.
+     * Retourne, pour chaque ligne et dans le même ordre, le nombre de lignes modifiées
+     * (0 si le produit n'existe pas ou si son stock est insuffisant).
+     */
+    int[] decrementStockBatch(List<StockItemRequest> items);
+
+    /**
+     * Ajoute à chaque produit sa variation de stock (positive ou négative), en un seul
+     * batch d'UPDATE qui incrémente aussi la version : une modification concurrente du
+     * produit lu avant ce report échoue au lieu d'écraser le stock.
+     */
+    void addStockBatch(Map<Long, Integer> deltas);
+}
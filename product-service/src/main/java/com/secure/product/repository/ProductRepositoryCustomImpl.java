@@ -0,0 +1,79 @@
+package com.secure.product.repository;
+
+import com.secure.product.dto.StockItemRequest;
+import com.secure.product.entity.Product;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation JDBC des opérations de stock groupées.
+ * Le JdbcTemplate participe à la transaction JPA en cours ; comme pour les requêtes
+ * {@code @Modifying(clearAutomatically = true)}, le contexte de persistance est vidé
+ * après la mise à jour pour ne pas exposer de stock périmé.
+ * Hibernate ne voit pas ces mises à jour : les produits concernés et les requêtes du
+ * catalogue sont retirés du cache de second niveau, à nouveau après la fin de la
+ * transaction pour écarter une relecture concurrente de l'ancien stock.
+ */
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String ADD_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public int[] decrementStockBatch(List<StockItemRequest> items) {
+        List<Object[]> batchArgs = items.stream()
+                .map(item -> new Object[] { item.getQuantity(), item.getProductId(), item.getQuantity() })
+                .toList();
+        List<Long> productIds = items.stream().map(StockItemRequest::getProductId).toList();
+
+        entityManager.flush();
+        int[] updatedRows = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+        entityManager.clear();
+        evictFromSecondLevelCache(productIds);
+        return updatedRows;
+    }
+
+    @Override
+    public void addStockBatch(Map<Long, Integer> deltas) {
+        List<Object[]> batchArgs = deltas.entrySet().stream()
+                .map(entry -> new Object[] { entry.getValue(), entry.getKey() })
+                .toList();
+
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(ADD_STOCK_SQL, batchArgs);
+        entityManager.clear();
+        evictFromSecondLevelCache(List.copyOf(deltas.keySet()));
+    }
+
+    private void evictFromSecondLevelCache(List<Long> productIds) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        Runnable eviction = () -> {
+            productIds.forEach(id -> cache.evictEntityData(Product.class, id));
+            cache.evictQueryRegion(ProductRepository.QUERY_CACHE_REGION);
+        };
+
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
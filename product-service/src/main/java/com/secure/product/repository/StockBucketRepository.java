@@ -0,0 +1,61 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.StockBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository JPA des compartiments de stock des produits répartis.
+ */
+@Repository
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+
+    /**
+     * Stock total d'un produit réparti.
+     */
+    interface StockTotal {
+        Long getProductId();
+
+        Long getQuantity();
+    }
+
+    /**
+     * Décrémente un seul compartiment s'il contient assez de stock.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockBucket b SET b.quantity = b.quantity - :quantity "
+            + "WHERE b.productId = :productId AND b.bucket = :bucket AND b.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * Incrémente un seul compartiment.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockBucket b SET b.quantity = b.quantity + :quantity "
+            + "WHERE b.productId = :productId AND b.bucket = :bucket")
+    int increment(@Param("productId") Long productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * Verrouille tous les compartiments d'un produit, dans l'ordre des numéros
+     * pour éviter les interblocages.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StockBucket b WHERE b.productId = :productId ORDER BY b.bucket")
+    List<StockBucket> findAllForUpdate(@Param("productId") Long productId);
+
+    @Query("SELECT b.productId AS productId, SUM(b.quantity) AS quantity FROM StockBucket b "
+            + "WHERE b.productId IN :productIds GROUP BY b.productId")
+    List<StockTotal> sumByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StockBucket b WHERE b.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
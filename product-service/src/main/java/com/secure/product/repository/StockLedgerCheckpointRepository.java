@@ -0,0 +1,12 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.StockLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository JPA du point de reprise du journal de stock.
+ */
+@Repository
+public interface StockLedgerCheckpointRepository extends JpaRepository<StockLedgerCheckpoint, Integer> {
+}
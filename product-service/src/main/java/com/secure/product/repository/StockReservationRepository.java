@@ -0,0 +1,27 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository JPA des réservations de stock du service Commande.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    /**
+     * Passe une réservation appliquée à l'état rendu. Un seul appelant obtient 1 :
+     * le stock n'est restauré qu'une fois.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = com.secure.product.entity.StockReservationStatus.RELEASED, "
+            + "r.releasedAt = :now WHERE r.reservationId = :reservationId "
+            + "AND r.status = com.secure.product.entity.StockReservationStatus.RESERVED")
+    int markReleased(@Param("reservationId") String reservationId, @Param("now") LocalDateTime now);
+}
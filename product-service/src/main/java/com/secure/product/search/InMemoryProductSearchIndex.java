@@ -0,0 +1,143 @@
+package com.secure.product.search;
+
+import com.secure.product.entity.Product;
+import com.secure.product.event.ProductChangedEvent;
+import com.secure.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index inversé en mémoire, utilisé avec H2 et dans les tests
+ * ({@code product.search.engine=memory}).
+ * Un terme du nom pèse plus qu'un terme de la description. L'index est reconstruit au
+ * démarrage puis tenu à jour par les {@link ProductChangedEvent} ; les résultats sont
+ * relus en base par le service, un produit supprimé entre-temps n'est donc jamais renvoyé.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryProductSearchIndex implements ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+
+    /** terme -> (id produit -> poids) */
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    /** id produit -> termes indexés, pour retirer un produit */
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(this::index);
+            }
+            log.info("Index de recherche en mémoire construit: {} produits", documents.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getProductId());
+            if (event.getType() != ProductChangedEvent.Type.DELETED) {
+                productRepository.findById(event.getProductId()).ifPresent(this::index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, boolean prefix, int limit) {
+        List<String> terms = SearchTerms.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean asPrefix = prefix && i == terms.size() - 1;
+                Map<Long, Integer> matches = match(terms.get(i), asPrefix);
+                // Tous les termes doivent correspondre
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> match(String term, boolean asPrefix) {
+        Map<Long, Integer> matches = new HashMap<>();
+        Map<String, Map<Long, Integer>> candidates = asPrefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+        candidates.values().forEach(posting -> posting.forEach((id, weight) -> matches.merge(id, weight, Math::max)));
+        return matches;
+    }
+
+    private void index(Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        SearchTerms.tokenize(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        SearchTerms.tokenize(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+
+        documents.put(product.getId(), weights);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.getId(), weight));
+    }
+
+    private void remove(Long productId) {
+        Map<String, Integer> weights = documents.remove(productId);
+        if (weights == null) {
+            return;
+        }
+        for (String term : weights.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
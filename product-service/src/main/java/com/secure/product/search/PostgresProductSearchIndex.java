@@ -0,0 +1,75 @@
+package com.secure.product.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recherche PostgreSQL : index GIN sur le tsvector du nom et de la description, et
+ * index trigramme sur le nom pour tolérer les fautes de frappe.
+ * Les index sont créés au démarrage s'ils n'existent pas (le schéma est géré par
+ * Hibernate, qui ne sait pas les déclarer). Sans l'extension pg_trgm, seule la
+ * recherche plein texte est utilisée.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.engine", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresProductSearchIndex implements ProductSearchIndex {
+
+    private static final String DOCUMENT =
+            "to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, ''))";
+
+    private static final String FULL_TEXT_SQL =
+            "SELECT id FROM products, to_tsquery('simple', ?) query"
+                    + " WHERE " + DOCUMENT + " @@ query"
+                    + " ORDER BY ts_rank(" + DOCUMENT + ", query) DESC, id"
+                    + " LIMIT ?";
+
+    private static final String FULL_TEXT_AND_TRIGRAM_SQL =
+            "SELECT id FROM products, to_tsquery('simple', ?) query"
+                    + " WHERE " + DOCUMENT + " @@ query OR name % ?"
+                    + " ORDER BY ts_rank(" + DOCUMENT + ", query) + similarity(name, ?) DESC, id"
+                    + " LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean trigramEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_search ON products USING GIN (" + DOCUMENT + ")");
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING GIN (name gin_trgm_ops)");
+            trigramEnabled = true;
+            log.info("Index de recherche PostgreSQL vérifiés");
+        } catch (DataAccessException e) {
+            log.warn("Index de recherche incomplets, recherche trigramme désactivée: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, boolean prefix, int limit) {
+        // Les accents sont conservés : la configuration 'simple' ne les retire pas des documents
+        List<String> terms = SearchTerms.tokenize(query, false);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        // Les termes sont réduits à des lettres et chiffres : aucun opérateur tsquery n'est injecté
+        String tsQuery = String.join(" & ", terms) + (prefix ? ":*" : "");
+        if (!trigramEnabled) {
+            return jdbcTemplate.queryForList(FULL_TEXT_SQL, Long.class, tsQuery, limit);
+        }
+        String text = String.join(" ", terms);
+        return jdbcTemplate.queryForList(FULL_TEXT_AND_TRIGRAM_SQL, Long.class, tsQuery, text, text, limit);
+    }
+}
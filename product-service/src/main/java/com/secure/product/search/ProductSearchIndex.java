@@ -0,0 +1,19 @@
+package com.secure.product.search;
+
+import java.util.List;
+
+/**
+ * Index de recherche plein texte sur le nom et la description des produits.
+ */
+public interface ProductSearchIndex {
+
+    /**
+     * Recherche les produits correspondant à tous les termes de la requête.
+     *
+     * @param query  termes saisis par l'utilisateur
+     * @param prefix si vrai, le dernier terme est traité comme un préfixe (saisie en cours)
+     * @param limit  nombre maximal de résultats
+     * @return les identifiants des produits, du plus pertinent au moins pertinent
+     */
+    List<Long> search(String query, boolean prefix, int limit);
+}
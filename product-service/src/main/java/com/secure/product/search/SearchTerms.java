@@ -0,0 +1,36 @@
+package com.secure.product.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage d'un texte en termes de recherche : minuscules, lettres et chiffres
+ * uniquement, accents retirés ou non.
+ */
+final class SearchTerms {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTerms() {
+    }
+
+    static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+
+    static List<String> tokenize(String text, boolean stripAccents) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = stripAccents
+                ? DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                : text;
+        return Arrays.stream(SEPARATORS.split(normalized.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.secure.product.service;
+
+import com.secure.product.entity.ProcessedEvent;
+import com.secure.product.entity.StockReservation;
+import com.secure.product.entity.StockReservationStatus;
+import com.secure.product.event.OrderEvent;
+import com.secure.product.exception.ProductNotFoundException;
+import com.secure.product.repository.ProcessedEventRepository;
+import com.secure.product.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consommation idempotente des événements de commande.
+ * Chaque événement est appliqué dans sa propre transaction, avec l'enregistrement
+ * de son identifiant : une livraison en double est ignorée, et un doublon concurrent
+ * échoue sur la clé primaire sans rien appliquer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventService {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductService productService;
+
+    /**
+     * Applique un événement de commande s'il n'a pas déjà été traité.
+     *
+     * @return vrai si l'événement a été appliqué, faux s'il l'avait déjà été
+     */
+    @Transactional
+    public boolean handle(OrderEvent event) {
+        if (processedEventRepository.existsById(event.getEventId())) {
+            log.debug("Événement {} déjà traité, ignoré", event.getEventId());
+            return false;
+        }
+
+        switch (event.getType()) {
+            case OrderEvent.ORDER_CANCELLED, OrderEvent.ORDER_ABORTED -> {
+                if (releaseReservation(event)) {
+                    restoreStock(event);
+                }
+            }
+            // Le stock a été réservé de manière synchrone à la création
+            case OrderEvent.ORDER_CREATED -> log.debug("Commande {} créée", event.getOrderId());
+            default -> log.warn("Type d'événement de commande inconnu ignoré: {}", event.getType());
+        }
+
+        processedEventRepository.save(ProcessedEvent.builder()
+                .eventId(event.getEventId())
+                .type(event.getType())
+                .processedAt(LocalDateTime.now())
+                .build());
+        return true;
+    }
+
+    /**
+     * Rend la réservation de l'événement. Une réservation inconnue (jamais reçue, ou
+     * pas encore) est enregistrée comme rendue pour ne plus pouvoir être appliquée ;
+     * les événements sans identifiant de réservation restaurent le stock directement.
+     *
+     * @return vrai si le stock réservé doit être restauré
+     */
+    private boolean releaseReservation(OrderEvent event) {
+        String reservationId = event.getReservationId();
+        if (reservationId == null) {
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (stockReservationRepository.markReleased(reservationId, now) == 1) {
+            return true;
+        }
+        if (!stockReservationRepository.existsById(reservationId)) {
+            log.info("Réservation {} rendue avant d'avoir été appliquée, aucun stock à restaurer", reservationId);
+            stockReservationRepository.save(StockReservation.builder()
+                    .reservationId(reservationId)
+                    .status(StockReservationStatus.RELEASED)
+                    .createdAt(now)
+                    .releasedAt(now)
+                    .build());
+        }
+        return false;
+    }
+
+    private void restoreStock(OrderEvent event) {
+        log.info("Restauration du stock ({}) de la commande {}", event.getType(), event.getOrderId());
+        for (OrderEvent.Item item : event.getItems()) {
+            try {
+                productService.incrementStock(item.getProductId(), item.getQuantity());
+            } catch (ProductNotFoundException e) {
+                log.warn("Stock non restauré pour la commande {}: {}", event.getOrderId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,15 +1,45 @@
 package com.secure.product.service;
 
+import com.secure.product.dto.ProductAvailability;
+import com.secure.product.dto.ProductPage;
+import com.secure.product.dto.StockItemRequest;
 import com.secure.product.entity.Product;
+import com.secure.product.entity.StockReservation;
+import com.secure.product.entity.StockReservationStatus;
+import com.secure.product.event.ProductChangedEvent;
 import com.secure.product.exception.InsufficientStockException;
 import com.secure.product.exception.ProductNotFoundException;
+import com.secure.product.exception.ReservationReleasedException;
+import com.secure.product.inventory.StockLedger;
 import com.secure.product.repository.ProductRepository;
+import com.secure.product.repository.StockReservationRepository;
+import com.secure.product.search.ProductSearchIndex;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service métier pour la gestion des produits.
@@ -21,6 +51,24 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ProductSearchIndex productSearchIndex;
+    private final StockBucketService stockBucketService;
+    private final Optional<StockLedger> stockLedger;
+    private final StockReservationRepository stockReservationRepository;
+
+    @Value("${product.catalog.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${product.catalog.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${product.search.default-limit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${product.search.max-limit:100}")
+    private int maxSearchLimit;
 
     /**
      * Récupère tous les produits.
@@ -28,7 +76,48 @@ public class ProductService {
     @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         log.info("Récupération de tous les produits");
-        return productRepository.findAll();
+        return withStockTotals(productRepository.findAll());
+    }
+
+    /**
+     * Récupère une page du catalogue après l'identifiant {@code after} (exclu).
+     * La taille est bornée par {@code product.catalog.max-page-size}.
+     */
+    @Transactional(readOnly = true)
+    public ProductPage getProductsPage(Long after, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        long cursor = after == null ? 0L : after;
+        log.info("Récupération de {} produits après l'id: {}", pageSize, cursor);
+
+        // Une ligne de plus pour savoir s'il existe une page suivante
+        List<Product> products = withStockTotals(productRepository.findPageAfter(cursor, Limit.of(pageSize + 1)));
+        if (products.size() <= pageSize) {
+            return new ProductPage(products, null);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        return new ProductPage(new ArrayList<>(page), page.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Parcourt tout le catalogue et transmet chaque produit au consommateur.
+     * Chaque produit est détaché après traitement : la mémoire reste constante
+     * quelle que soit la taille du catalogue.
+     *
+     * @return le nombre de produits exportés
+     */
+    @Transactional(readOnly = true)
+    public long exportCatalog(Consumer<Product> consumer) {
+        log.info("Export du catalogue");
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAll()) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                consumer.accept(withStockTotal(product));
+                entityManager.detach(product);
+                count++;
+            }
+        }
+        log.info("Catalogue exporté: {} produits", count);
+        return count;
     }
 
     /**
@@ -37,8 +126,7 @@ public class ProductService {
     @Transactional(readOnly = true)
     public Product getProductById(Long id) {
         log.info("Récupération du produit avec id: {}", id);
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Produit non trouvé avec l'id: " + id));
+        return withStockTotal(findProduct(id));
     }
 
     /**
@@ -47,26 +135,61 @@ public class ProductService {
     public Product createProduct(Product product, String createdBy) {
         log.info("Création d'un nouveau produit: {} par l'utilisateur: {}", product.getName(), createdBy);
         product.setCreatedBy(createdBy);
-        Product savedProduct = productRepository.save(product);
+        int stock = product.getStockQuantity();
+        if (StockBucketService.isStriped(product)) {
+            product.setStockQuantity(0);
+        }
+        Product savedProduct = productRepository.saveAndFlush(product);
+        if (StockBucketService.isStriped(savedProduct)) {
+            stockBucketService.distribute(savedProduct, stock);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId(), ProductChangedEvent.Type.CREATED));
         log.info("Produit créé avec succès, id: {}", savedProduct.getId());
-        return savedProduct;
+        return withStockTotal(savedProduct);
     }
 
     /**
-     * Met à jour un produit existant.
+     * Met à jour un produit existant ; sans {@code stockBuckets}, la répartition du stock
+     * est conservée.
+     * Avec le registre de stock en mémoire, la nouvelle quantité passe par son journal ;
+     * la ligne est verrouillée pour qu'un report concurrent ne se glisse pas entre la
+     * lecture du stock en base et son déplacement vers (ou depuis) les compartiments.
      */
     public Product updateProduct(Long id, Product productDetails) {
         log.info("Mise à jour du produit avec id: {}", id);
-        Product existingProduct = getProductById(id);
+        Product existingProduct = stockLedger.isPresent()
+                ? productRepository.findByIdForUpdate(id)
+                        .orElseThrow(() -> new ProductNotFoundException("Produit non trouvé avec l'id: " + id))
+                : findProduct(id);
+        boolean wasStriped = StockBucketService.isStriped(existingProduct);
+        // Stock à répartir : celui déjà en base si le registre fait foi, sinon la nouvelle valeur
+        int stock = stockLedger.isPresent() ? storedStock(existingProduct) : productDetails.getStockQuantity();
 
         existingProduct.setName(productDetails.getName());
         existingProduct.setDescription(productDetails.getDescription());
         existingProduct.setPrice(productDetails.getPrice());
-        existingProduct.setStockQuantity(productDetails.getStockQuantity());
+        // Nombre de compartiments absent de la requête : répartition inchangée
+        if (productDetails.getStockBuckets() != null) {
+            existingProduct.setStockBuckets(productDetails.getStockBuckets());
+        }
+        // Un produit réparti porte son stock dans ses compartiments, redistribués ci-dessous
+        boolean striped = StockBucketService.isStriped(existingProduct);
+        existingProduct.setStockQuantity(striped ? 0 : stock);
 
-        Product updatedProduct = productRepository.save(existingProduct);
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+        if (striped || wasStriped) {
+            stockBucketService.distribute(updatedProduct, stock);
+        }
+        stockLedger.ifPresent(ledger -> ledger.set(id, productDetails.getStockQuantity()));
+        eventPublisher.publishEvent(ProductChangedEvent.of(id, ProductChangedEvent.Type.UPDATED));
         log.info("Produit mis à jour avec succès, id: {}", updatedProduct.getId());
-        return updatedProduct;
+        if (stockLedger.isPresent()) {
+            // Le compteur n'est fixé qu'après le commit : la réponse porte déjà la nouvelle valeur
+            entityManager.detach(updatedProduct);
+            updatedProduct.setStockQuantity(productDetails.getStockQuantity());
+            return updatedProduct;
+        }
+        return withStockTotal(updatedProduct);
     }
 
     /**
@@ -74,8 +197,13 @@ public class ProductService {
      */
     public void deleteProduct(Long id) {
         log.info("Suppression du produit avec id: {}", id);
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        if (StockBucketService.isStriped(product)) {
+            stockBucketService.remove(id);
+        }
+        stockLedger.ifPresent(ledger -> ledger.remove(id));
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id, ProductChangedEvent.Type.DELETED));
         log.info("Produit supprimé avec succès, id: {}", id);
     }
 
@@ -85,7 +213,26 @@ public class ProductService {
     @Transactional(readOnly = true)
     public List<Product> searchProductsByName(String name) {
         log.info("Recherche de produits avec le nom contenant: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return withStockTotals(productRepository.findByNameContainingIgnoreCase(name));
+    }
+
+    /**
+     * Recherche plein texte sur le nom et la description, classée par pertinence.
+     * En mode préfixe, le dernier terme peut être incomplet (saisie en cours).
+     */
+    @Transactional(readOnly = true)
+    public List<Product> searchProducts(String query, boolean prefix, Integer limit) {
+        int maxResults = limit == null ? defaultSearchLimit : Math.max(1, Math.min(limit, maxSearchLimit));
+        log.info("Recherche de produits: '{}' (préfixe: {}, limite: {})", query, prefix, maxResults);
+
+        List<Long> ids = productSearchIndex.search(query, prefix, maxResults);
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // Conserver l'ordre de pertinence de l'index
+        return withStockTotals(ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList());
     }
 
     /**
@@ -94,17 +241,41 @@ public class ProductService {
     @Transactional(readOnly = true)
     public boolean checkStockAvailability(Long productId, Integer quantity) {
         log.info("Vérification du stock pour le produit {}, quantité demandée: {}", productId, quantity);
+        if (stockLedger.isPresent()) {
+            return stockLedger.get().stock(productId)
+                    .orElseThrow(() -> new ProductNotFoundException("Produit non trouvé avec l'id: " + productId)) >= quantity;
+        }
         return productRepository.isStockAvailable(productId, quantity)
                 .orElseThrow(() -> new ProductNotFoundException("Produit non trouvé avec l'id: " + productId));
     }
 
+    /**
+     * Récupère en une seule requête les produits d'une commande avec la
+     * disponibilité de chaque quantité demandée.
+     * Les lignes portant sur le même produit sont cumulées ; les produits
+     * inexistants sont absents du résultat.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductAvailability> getProductsAvailability(List<StockItemRequest> items) {
+        Map<Long, Integer> requested = aggregateQuantities(items);
+        log.info("Récupération groupée de {} produits", requested.size());
+
+        Map<Long, Product> products = withStockTotals(productRepository.findAllById(requested.keySet())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return requested.entrySet().stream()
+                .filter(entry -> products.containsKey(entry.getKey()))
+                .map(entry -> ProductAvailability.of(products.get(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
     /**
      * Décrémente le stock d'un produit (appelé par le service Commande).
+     * Pour un produit réparti, seul un compartiment est modifié.
      */
     public void decrementStock(Long productId, Integer quantity) {
         log.info("Décrémentation du stock pour le produit {}, quantité: {}", productId, quantity);
-        int updatedRows = productRepository.decrementStock(productId, quantity);
-        if (updatedRows == 0) {
+        if (!tryDecrement(findProduct(productId), quantity)) {
             Product product = getProductById(productId);
             throw new InsufficientStockException(
                     String.format("Stock insuffisant pour le produit '%s'. Stock disponible: %d, quantité demandée: %d",
@@ -113,14 +284,246 @@ public class ProductService {
         log.info("Stock décrémenté avec succès pour le produit {}", productId);
     }
 
+    /**
+     * Applique en une transaction un lot de décrémentations regroupées par produit
+     * (voir {@link StockDecrementBatcher}), dans l'ordre des identifiants.
+     * Pour chaque produit, le total du lot part en une seule mise à jour conditionnelle ;
+     * si le stock ne suffit pas, la ligne est verrouillée et les demandes sont acceptées
+     * dans l'ordre d'arrivée tant que le stock restant le permet.
+     *
+     * @return pour chaque produit existant, l'acceptation de chaque demande dans l'ordre
+     */
+    public Map<Long, boolean[]> decrementStockGrouped(SortedMap<Long, List<Integer>> quantitiesByProduct) {
+        Map<Long, boolean[]> results = new HashMap<>();
+        quantitiesByProduct.forEach((productId, quantities) -> {
+            Optional<Product> product = productRepository.findById(productId);
+            if (product.isEmpty()) {
+                return;
+            }
+            int total = quantities.stream().mapToInt(Integer::intValue).sum();
+            boolean[] accepted = new boolean[quantities.size()];
+            if (tryDecrement(product.get(), total)) {
+                Arrays.fill(accepted, true);
+            } else if (stockLedger.isPresent() || StockBucketService.isStriped(product.get())) {
+                for (int i = 0; i < accepted.length; i++) {
+                    accepted[i] = tryDecrement(product.get(), quantities.get(i));
+                }
+            } else {
+                // Le contexte a été vidé par la mise à jour conditionnelle : la ligne est relue
+                int available = productRepository.findByIdForUpdate(productId)
+                        .map(Product::getStockQuantity)
+                        .orElse(0);
+                int admitted = 0;
+                for (int i = 0; i < accepted.length; i++) {
+                    accepted[i] = admitted + quantities.get(i) <= available;
+                    if (accepted[i]) {
+                        admitted += quantities.get(i);
+                    }
+                }
+                if (admitted > 0) {
+                    productRepository.decrementStock(productId, admitted);
+                }
+            }
+            results.put(productId, accepted);
+        });
+        return results;
+    }
+
+    /**
+     * Réserve le stock de tous les produits d'une commande (appelé par le service Commande).
+     * Les décrémentations partent en un seul batch d'UPDATE conditionnels, dans l'ordre des
+     * identifiants pour éviter les interblocages ; les produits répartis sont ensuite
+     * décrémentés compartiment par compartiment, dans le même ordre. Si une seule ligne
+     * échoue, l'exception annule la transaction et aucun stock n'est modifié.
+     * Avec le registre en mémoire, la réservation se fait sur ses compteurs.
+     */
+    public void reserveStock(List<StockItemRequest> items) {
+        reserveStock(null, items);
+    }
+
+    /**
+     * Réserve le stock sous l'identifiant fourni par le service Commande : un nouvel
+     * essai de la même réservation (après un délai dépassé côté Commande) est accepté
+     * sans décrémenter le stock une seconde fois, et une réservation déjà rendue est refusée.
+     */
+    public void reserveStock(String reservationId, List<StockItemRequest> items) {
+        if (reservationId != null && !recordReservation(reservationId)) {
+            return;
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>(aggregateQuantities(items));
+        List<StockItemRequest> lines = quantities.entrySet().stream()
+                .map(entry -> new StockItemRequest(entry.getKey(), entry.getValue()))
+                .toList();
+        log.info("Réservation du stock pour {} produits", lines.size());
+
+        Set<Long> failed = stockLedger.isPresent() ? stockLedger.get().reserve(quantities) : reserveInDatabase(lines);
+
+        List<String> failures = new ArrayList<>();
+        for (StockItemRequest line : lines) {
+            if (failed.contains(line.getProductId())) {
+                Product product = getProductById(line.getProductId());
+                failures.add(String.format("'%s' (stock disponible: %d, quantité demandée: %d)",
+                        product.getName(), product.getStockQuantity(), line.getQuantity()));
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new InsufficientStockException("Stock insuffisant pour les produits: " + String.join(", ", failures));
+        }
+        log.info("Stock réservé avec succès pour {} produits", lines.size());
+    }
+
+    /**
+     * Enregistre la réservation avant de toucher au stock : si le stock manque,
+     * l'annulation de la transaction la retire aussi.
+     *
+     * @return faux si la réservation avait déjà été appliquée
+     */
+    private boolean recordReservation(String reservationId) {
+        Optional<StockReservation> existing = stockReservationRepository.findById(reservationId);
+        if (existing.isPresent()) {
+            if (existing.get().getStatus() == StockReservationStatus.RELEASED) {
+                throw new ReservationReleasedException("La réservation " + reservationId + " a déjà été rendue");
+            }
+            log.info("Réservation {} déjà appliquée, nouvel essai ignoré", reservationId);
+            return false;
+        }
+        // Écrite tout de suite : une réservation ou une libération concurrente échoue sur la clé primaire
+        stockReservationRepository.saveAndFlush(StockReservation.builder()
+                .reservationId(reservationId)
+                .status(StockReservationStatus.RESERVED)
+                .createdAt(LocalDateTime.now())
+                .build());
+        return true;
+    }
+
+    /**
+     * Décrémente en base le stock des lignes d'une réservation.
+     *
+     * @return les produits en stock insuffisant (ou inexistants)
+     */
+    private Set<Long> reserveInDatabase(List<StockItemRequest> lines) {
+        Map<Long, Product> striped = lines.stream()
+                .map(line -> productRepository.findById(line.getProductId()))
+                .flatMap(Optional::stream)
+                .filter(StockBucketService::isStriped)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<StockItemRequest> rowLines = lines.stream()
+                .filter(line -> !striped.containsKey(line.getProductId()))
+                .toList();
+
+        Set<Long> failed = new HashSet<>();
+        if (!rowLines.isEmpty()) {
+            int[] updatedRows = productRepository.decrementStockBatch(rowLines);
+            for (int i = 0; i < rowLines.size(); i++) {
+                if (updatedRows[i] == 0) {
+                    failed.add(rowLines.get(i).getProductId());
+                }
+            }
+        }
+        for (StockItemRequest line : lines) {
+            Product product = striped.get(line.getProductId());
+            if (product != null && !stockBucketService.decrement(product, line.getQuantity())) {
+                failed.add(line.getProductId());
+            }
+        }
+        return failed;
+    }
+
     /**
      * Incrémente le stock d'un produit (pour annulation de commande).
+     * Un produit introuvable ne condamne pas la transaction appelante : le consommateur
+     * d'événements ignore la ligne et applique les autres.
      */
+    @Transactional(noRollbackFor = ProductNotFoundException.class)
     public void incrementStock(Long productId, Integer quantity) {
         log.info("Incrémentation du stock pour le produit {}, quantité: {}", productId, quantity);
-        Product product = getProductById(productId);
-        product.setStockQuantity(product.getStockQuantity() + quantity);
-        productRepository.save(product);
+        Product product = findProduct(productId);
+        if (stockLedger.isPresent()) {
+            stockLedger.get().increment(productId, quantity);
+        } else if (StockBucketService.isStriped(product)) {
+            stockBucketService.increment(product, quantity);
+        } else {
+            product.setStockQuantity(product.getStockQuantity() + quantity);
+            productRepository.save(product);
+        }
         log.info("Stock incrémenté avec succès pour le produit {}", productId);
     }
+
+    /**
+     * Stock d'un produit tel qu'en base : sa ligne plus, s'il est réparti, ses compartiments.
+     */
+    private int storedStock(Product product) {
+        if (!StockBucketService.isStriped(product)) {
+            return product.getStockQuantity();
+        }
+        return product.getStockQuantity()
+                + stockBucketService.totals(List.of(product.getId())).getOrDefault(product.getId(), 0);
+    }
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Produit non trouvé avec l'id: " + id));
+    }
+
+    /**
+     * Décrémente le stock d'un produit selon l'endroit où il est tenu : registre en
+     * mémoire, compartiments ou ligne du produit.
+     */
+    private boolean tryDecrement(Product product, int quantity) {
+        if (stockLedger.isPresent()) {
+            return stockLedger.get().tryDecrement(product.getId(), quantity);
+        }
+        if (StockBucketService.isStriped(product)) {
+            return stockBucketService.decrement(product, quantity);
+        }
+        return productRepository.decrementStock(product.getId(), quantity) == 1;
+    }
+
+    /**
+     * Reporte dans {@code stockQuantity} le stock total des produits répartis (somme des
+     * compartiments), ou celui du registre en mémoire s'il est actif. Ces produits sont
+     * détachés pour que le total ne soit pas écrit dans leur ligne ; les autres sont
+     * renvoyés tels quels, sans requête supplémentaire.
+     */
+    private List<Product> withStockTotals(List<Product> products) {
+        if (stockLedger.isPresent()) {
+            for (Product product : products) {
+                entityManager.detach(product);
+                stockLedger.get().stock(product.getId()).ifPresent(product::setStockQuantity);
+            }
+            return products;
+        }
+        List<Long> stripedIds = products.stream()
+                .filter(StockBucketService::isStriped)
+                .map(Product::getId)
+                .toList();
+        if (stripedIds.isEmpty()) {
+            return products;
+        }
+        Map<Long, Integer> totals = stockBucketService.totals(stripedIds);
+        for (Product product : products) {
+            if (StockBucketService.isStriped(product)) {
+                entityManager.detach(product);
+                product.setStockQuantity(product.getStockQuantity() + totals.getOrDefault(product.getId(), 0));
+            }
+        }
+        return products;
+    }
+
+    private Product withStockTotal(Product product) {
+        withStockTotals(List.of(product));
+        return product;
+    }
+
+    /**
+     * Cumule les quantités demandées par produit, en conservant l'ordre d'arrivée.
+     */
+    private Map<Long, Integer> aggregateQuantities(List<StockItemRequest> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (StockItemRequest item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
 }
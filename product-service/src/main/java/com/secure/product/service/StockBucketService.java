@@ -0,0 +1,132 @@
+package com.secure.product.service;
+
+import com.secure.product.entity.Product;
+import com.secure.product.entity.StockBucket;
+import com.secure.product.repository.StockBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Stock réparti en compartiments pour les produits très demandés.
+ * <p>
+ * Le stock d'un produit réparti est porté par ses {@code stockBuckets} compartiments
+ * ({@link StockBucket}) ; la colonne {@code stock_quantity} du produit reste à 0 et
+ * la ligne du produit n'est plus verrouillée par les commandes. Une décrémentation
+ * part d'un compartiment tiré au hasard et passe aux suivants jusqu'à en trouver un
+ * assez garni ; si aucun ne suffit seul, tous les compartiments sont verrouillés
+ * (dans l'ordre) et la quantité est prélevée sur plusieurs d'entre eux.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class StockBucketService {
+
+    private final StockBucketRepository stockBucketRepository;
+
+    public static boolean isStriped(Product product) {
+        return product.getStockBuckets() != null && product.getStockBuckets() > 1;
+    }
+
+    /**
+     * Répartit le stock total d'un produit entre ses compartiments, en remplaçant
+     * les compartiments existants. Sans répartition, les compartiments sont supprimés.
+     */
+    public void distribute(Product product, int total) {
+        remove(product.getId());
+        if (!isStriped(product)) {
+            return;
+        }
+        int buckets = product.getStockBuckets();
+        List<StockBucket> rows = IntStream.range(0, buckets)
+                .mapToObj(bucket -> StockBucket.builder()
+                        .productId(product.getId())
+                        .bucket(bucket)
+                        .quantity(total / buckets + (bucket < total % buckets ? 1 : 0))
+                        .build())
+                .toList();
+        stockBucketRepository.saveAll(rows);
+        log.info("Stock du produit {} réparti en {} compartiments", product.getId(), buckets);
+    }
+
+    public void remove(Long productId) {
+        stockBucketRepository.deleteByProductId(productId);
+    }
+
+    /**
+     * Décrémente le stock d'un produit réparti.
+     *
+     * @return faux si le stock total est insuffisant (rien n'est modifié)
+     */
+    public boolean decrement(Product product, int quantity) {
+        int buckets = product.getStockBuckets();
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        for (int i = 0; i < buckets; i++) {
+            if (stockBucketRepository.decrement(product.getId(), (start + i) % buckets, quantity) == 1) {
+                return true;
+            }
+        }
+
+        List<StockBucket> rows = stockBucketRepository.findAllForUpdate(product.getId());
+        if (rows.stream().mapToInt(StockBucket::getQuantity).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (StockBucket row : rows) {
+            int taken = Math.min(remaining, row.getQuantity());
+            row.setQuantity(row.getQuantity() - taken);
+            remaining -= taken;
+        }
+        // Écrit avant qu'une requête clearAutomatically ne vide le contexte de persistance
+        stockBucketRepository.flush();
+        log.debug("Stock du produit {} prélevé sur plusieurs compartiments", product.getId());
+        return true;
+    }
+
+    /**
+     * Remet du stock dans un compartiment tiré au hasard.
+     */
+    public void increment(Product product, int quantity) {
+        int bucket = ThreadLocalRandom.current().nextInt(product.getStockBuckets());
+        stockBucketRepository.increment(product.getId(), bucket, quantity);
+    }
+
+    /**
+     * Ajoute une variation (éventuellement négative) au stock total d'un produit réparti,
+     * puis répartit à nouveau ce total entre ses compartiments, verrouillés dans l'ordre.
+     * Sert au report en base du registre de stock en mémoire, dont le total fait foi.
+     */
+    public void add(Long productId, int delta) {
+        List<StockBucket> rows = stockBucketRepository.findAllForUpdate(productId);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Produit réparti sans compartiments: " + productId);
+        }
+        int total = rows.stream().mapToInt(StockBucket::getQuantity).sum() + delta;
+        for (int bucket = 0; bucket < rows.size(); bucket++) {
+            rows.get(bucket).setQuantity(total / rows.size() + (bucket < total % rows.size() ? 1 : 0));
+        }
+        stockBucketRepository.flush();
+    }
+
+    /**
+     * Stock total des produits répartis parmi {@code productIds}.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> totals(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return stockBucketRepository.sumByProductIds(productIds).stream()
+                .collect(Collectors.toMap(StockBucketRepository.StockTotal::getProductId,
+                        total -> total.getQuantity().intValue()));
+    }
+}
@@ -0,0 +1,285 @@
+package com.secure.product.service;
+
+import com.secure.product.entity.Product;
+import com.secure.product.exception.InsufficientStockException;
+import com.secure.product.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Regroupe les décrémentations de stock concurrentes (validation groupée).
+ * <p>
+ * Les demandes arrivées pendant {@code window} après la première, dans la limite de
+ * {@code max-batch-size}, sont appliquées ensemble par
+ * {@link ProductService#decrementStockGrouped} : une transaction par lot et une mise à
+ * jour par produit au lieu d'une par demande. Chaque appelant reste bloqué jusqu'au
+ * commit du lot et reçoit son propre résultat (succès ou stock insuffisant).
+ * <ul>
+ * <li>{@code product.stock.decrement.batch.size} : nombre de demandes par lot</li>
+ * <li>{@code product.stock.decrement.queue.delay} : attente d'une demande avant l'application de son lot</li>
+ * </ul>
+ * Si la file est pleine, le regroupement désactivé ou son thread arrêté, la demande est
+ * appliquée directement. Un appelant n'attend pas au-delà de {@code timeout} : sa demande
+ * est alors annulée, ou son stock remis si le lot l'avait déjà appliquée. Si le lot échoue
+ * (erreur SQL sur un produit), ses demandes sont reprises une à une.
+ */
+@Service
+@Slf4j
+public class StockDecrementBatcher {
+
+    private record Request(Long productId, int quantity, long enqueuedAt, CompletableFuture<Void> result) {
+    }
+
+    private final ProductService productService;
+    private final boolean enabled;
+    private final Duration window;
+    private final Duration timeout;
+    private final int maxBatchSize;
+    private final BlockingQueue<Request> queue;
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public StockDecrementBatcher(ProductService productService, MeterRegistry registry,
+            @Value("${product.stock.batching.enabled:false}") boolean enabled,
+            @Value("${product.stock.batching.window:2ms}") Duration window,
+            @Value("${product.stock.batching.timeout:5s}") Duration timeout,
+            @Value("${product.stock.batching.max-batch-size:100}") int maxBatchSize,
+            @Value("${product.stock.batching.queue-capacity:10000}") int queueCapacity) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.window = window;
+        this.timeout = timeout;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("product.stock.decrement.batch.size")
+                .description("Nombre de décrémentations de stock appliquées par lot")
+                .register(registry);
+        this.queueDelay = Timer.builder("product.stock.decrement.queue.delay")
+                .description("Attente d'une décrémentation de stock avant l'application de son lot")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("stock-decrement-batcher").daemon().start(this::run);
+        log.info("Regroupement des décrémentations de stock actif (fenêtre: {} ms, lot max: {})",
+                window.toMillis(), maxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker != null) {
+            running = false;
+            worker.join(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Décrémente le stock d'un produit, regroupé avec les demandes concurrentes.
+     *
+     * @throws InsufficientStockException si le stock ne suffit pas pour cette demande
+     * @throws ProductNotFoundException   si le produit n'existe pas
+     */
+    public void decrement(Long productId, int quantity) {
+        Request request = new Request(productId, quantity, System.nanoTime(), new CompletableFuture<>());
+        Thread current = worker;
+        if (!running || current == null || !current.isAlive() || !queue.offer(request)) {
+            productService.decrementStock(productId, quantity);
+            return;
+        }
+        try {
+            await(request.result());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                // Le regroupement s'est arrêté sans appliquer la demande
+                productService.decrementStock(productId, quantity);
+                return;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.result().cancel(false);
+            throw new IllegalStateException("Attente de la décrémentation du stock interrompue", e);
+        }
+    }
+
+    /**
+     * Attend le résultat du lot, au plus {@code timeout}. Passé ce délai, la demande est
+     * annulée : le lot l'ignore, ou remet son stock s'il l'a déjà appliquée.
+     */
+    private void await(CompletableFuture<Void> result) throws ExecutionException, InterruptedException {
+        try {
+            result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (result.cancel(false)) {
+                throw new IllegalStateException(
+                        "Décrémentation du stock non confirmée après " + timeout.toMillis() + " ms", e);
+            }
+            // Complétée entre-temps
+            result.get();
+        }
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = first.enqueuedAt() + window.toNanos();
+                    while (batch.size() < maxBatchSize) {
+                        Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    apply(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                    // Le lot en cours de constitution n'a pas été appliqué
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Échec inattendu du lot de décrémentations de stock", e);
+                    batch.forEach(request -> request.result().completeExceptionally(e));
+                    batch.clear();
+                } finally {
+                    batch.removeIf(request -> request.result().isDone());
+                }
+            }
+        } finally {
+            rejectPending(batch);
+        }
+    }
+
+    /**
+     * Rend à leurs appelants les demandes non appliquées à l'arrêt du thread : ils
+     * passent par la voie directe.
+     */
+    private void rejectPending(List<Request> batch) {
+        queue.drainTo(batch);
+        RejectedExecutionException stopped = new RejectedExecutionException("Regroupement des décrémentations de stock arrêté");
+        batch.forEach(request -> request.result().completeExceptionally(stopped));
+        if (!batch.isEmpty()) {
+            log.warn("{} décrémentations de stock rendues à leurs appelants à l'arrêt du regroupement", batch.size());
+        }
+    }
+
+    private void apply(List<Request> batch) {
+        // Demandes abandonnées par leur appelant (délai dépassé) : elles ne sont pas appliquées
+        batch.removeIf(request -> request.result().isCancelled());
+        if (batch.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        batch.forEach(request -> queueDelay.record(now - request.enqueuedAt(), TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+
+        SortedMap<Long, List<Request>> byProduct = batch.stream()
+                .collect(Collectors.groupingBy(Request::productId, TreeMap::new, Collectors.toList()));
+        SortedMap<Long, List<Integer>> quantities = new TreeMap<>();
+        byProduct.forEach((productId, requests) ->
+                quantities.put(productId, requests.stream().map(Request::quantity).toList()));
+
+        Map<Long, boolean[]> results;
+        try {
+            results = productService.decrementStockGrouped(quantities);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // Une erreur sur un produit ne doit pas faire échouer les demandes des autres
+            log.warn("Lot de {} décrémentations de stock annulé, demandes reprises une à une: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(this::applyAlone);
+            return;
+        }
+        log.debug("Lot de {} décrémentations appliqué sur {} produits", batch.size(), byProduct.size());
+
+        Map<Long, Product> rejectedProducts = new HashMap<>();
+        byProduct.forEach((productId, requests) -> {
+            boolean[] accepted = results.get(productId);
+            for (int i = 0; i < requests.size(); i++) {
+                Request request = requests.get(i);
+                if (accepted == null) {
+                    request.result().completeExceptionally(
+                            new ProductNotFoundException("Produit non trouvé avec l'id: " + productId));
+                } else if (accepted[i]) {
+                    confirm(request);
+                } else {
+                    Product product = rejectedProducts.computeIfAbsent(productId, productService::getProductById);
+                    request.result().completeExceptionally(new InsufficientStockException(
+                            String.format("Stock insuffisant pour le produit '%s'. Stock disponible: %d, quantité demandée: %d",
+                                    product.getName(), product.getStockQuantity(), request.quantity())));
+                }
+            }
+        });
+    }
+
+    private void applyAlone(Request request) {
+        if (request.result().isCancelled()) {
+            return;
+        }
+        try {
+            productService.decrementStock(request.productId(), request.quantity());
+        } catch (RuntimeException e) {
+            request.result().completeExceptionally(e);
+            return;
+        }
+        confirm(request);
+    }
+
+    /**
+     * Confirme une demande appliquée ; si son appelant l'a abandonnée entre-temps,
+     * le stock est remis.
+     */
+    private void confirm(Request request) {
+        if (request.result().complete(null)) {
+            return;
+        }
+        log.warn("Décrémentation de {} du produit {} abandonnée par son appelant, stock remis",
+                request.quantity(), request.productId());
+        try {
+            productService.incrementStock(request.productId(), request.quantity());
+        } catch (RuntimeException e) {
+            log.error("Stock du produit {} non remis ({}): {}", request.productId(), request.quantity(), e.getMessage());
+        }
+    }
+}
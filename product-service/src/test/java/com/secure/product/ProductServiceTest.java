@@ -1,18 +1,33 @@
 package com.secure.product;
 
+import com.secure.product.dto.ProductAvailability;
+import com.secure.product.dto.ProductPage;
+import com.secure.product.dto.StockItemRequest;
 import com.secure.product.entity.Product;
+import com.secure.product.event.OrderEvent;
+import com.secure.product.repository.ProcessedEventRepository;
 import com.secure.product.repository.ProductRepository;
+import com.secure.product.service.OrderEventService;
 import com.secure.product.service.ProductService;
+import com.secure.product.service.StockDecrementBatcher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -31,6 +46,18 @@ class ProductServiceTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private StockDecrementBatcher stockDecrementBatcher;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private Product testProduct;
 
     @BeforeEach
@@ -90,6 +117,29 @@ class ProductServiceTest {
         assertThat(products).hasSize(2);
     }
 
+    @Test
+    @DisplayName("Doit paginer le catalogue par curseur")
+    void shouldPaginateCatalogWithCursor() {
+        // Given
+        for (int i = 1; i <= 3; i++) {
+            productRepository.save(Product.builder()
+                    .name("Produit " + i)
+                    .price(new BigDecimal("10.00"))
+                    .stockQuantity(10)
+                    .build());
+        }
+
+        // When
+        ProductPage firstPage = productService.getProductsPage(null, 2);
+        ProductPage lastPage = productService.getProductsPage(firstPage.getNextCursor(), 2);
+
+        // Then
+        assertThat(firstPage.getItems()).hasSize(2);
+        assertThat(firstPage.getNextCursor()).isEqualTo(firstPage.getItems().get(1).getId());
+        assertThat(lastPage.getItems()).extracting(Product::getName).containsExactly("Produit 3");
+        assertThat(lastPage.getNextCursor()).isNull();
+    }
+
     @Test
     @DisplayName("Doit mettre à jour un produit")
     void shouldUpdateProduct() {
@@ -178,4 +228,252 @@ class ProductServiceTest {
         // Then
         assertThat(results).hasSize(2);
     }
+
+    @Test
+    @DisplayName("Doit restaurer le stock une seule fois pour une commande annulée")
+    void shouldRestoreStockOnceForCancelledOrder() {
+        // Given
+        Product saved = productRepository.save(testProduct);
+        OrderEvent cancelled = new OrderEvent("evt-cancel-1", OrderEvent.ORDER_CANCELLED, 1L, "user-1",
+                List.of(new OrderEvent.Item(saved.getId(), 5)), null, null);
+
+        // When
+        boolean firstDelivery = orderEventService.handle(cancelled);
+        boolean secondDelivery = orderEventService.handle(cancelled);
+
+        // Then
+        assertThat(firstDelivery).isTrue();
+        assertThat(secondDelivery).isFalse();
+        assertThat(productService.getProductById(saved.getId()).getStockQuantity()).isEqualTo(105);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Doit appliquer une annulation dont un produit a été supprimé")
+    void shouldRestoreStockWhenOneProductIsMissing() {
+        // Given : l'événement est appliqué et validé dans sa propre transaction
+        Product saved = productRepository.save(testProduct);
+        OrderEvent cancelled = new OrderEvent("evt-cancel-missing", OrderEvent.ORDER_CANCELLED, 2L, "user-1",
+                List.of(new OrderEvent.Item(Long.MAX_VALUE, 1), new OrderEvent.Item(saved.getId(), 5)), null, null);
+
+        try {
+            // When
+            boolean applied = orderEventService.handle(cancelled);
+
+            // Then
+            assertThat(applied).isTrue();
+            assertThat(productRepository.findById(saved.getId()).orElseThrow().getStockQuantity()).isEqualTo(105);
+            assertThat(orderEventService.handle(cancelled)).isFalse();
+        } finally {
+            productRepository.deleteById(saved.getId());
+            processedEventRepository.deleteById("evt-cancel-missing");
+        }
+    }
+
+    @Test
+    @DisplayName("Doit rechercher par nom et description, classé par pertinence")
+    void shouldSearchProductsByRelevance() {
+        // Given
+        Product keyboard = productService.createProduct(Product.builder()
+                .name("Clavier mécanique")
+                .description("Clavier rétroéclairé")
+                .price(new BigDecimal("89.99"))
+                .stockQuantity(10)
+                .build(), "admin");
+        Product mouse = productService.createProduct(Product.builder()
+                .name("Souris sans fil")
+                .description("Assortie au clavier")
+                .price(new BigDecimal("29.99"))
+                .stockQuantity(10)
+                .build(), "admin");
+
+        // When
+        List<Product> fullText = productService.searchProducts("clavier", false, null);
+        List<Product> typeahead = productService.searchProducts("clavier meca", true, null);
+        List<Product> limited = productService.searchProducts("clavier", false, 1);
+
+        // Then
+        assertThat(fullText).extracting(Product::getId).containsExactly(keyboard.getId(), mouse.getId());
+        assertThat(typeahead).extracting(Product::getId).containsExactly(keyboard.getId());
+        assertThat(limited).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Doit récupérer plusieurs produits et leur disponibilité en un seul appel")
+    void shouldGetProductsAvailabilityInBatch() {
+        // Given
+        Product first = productRepository.save(testProduct);
+        Product second = productRepository.save(Product.builder()
+                .name("Autre Produit")
+                .price(new BigDecimal("49.99"))
+                .stockQuantity(5)
+                .build());
+
+        // When
+        List<ProductAvailability> results = productService.getProductsAvailability(List.of(
+                new StockItemRequest(first.getId(), 60),
+                new StockItemRequest(second.getId(), 3),
+                new StockItemRequest(second.getId(), 3),
+                new StockItemRequest(-1L, 1)));
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getId()).isEqualTo(first.getId());
+        assertThat(results.get(0).isAvailable()).isTrue();
+        assertThat(results.get(1).getRequestedQuantity()).isEqualTo(6);
+        assertThat(results.get(1).isAvailable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Doit réserver le stock de plusieurs produits en une seule opération")
+    void shouldReserveStockForSeveralProducts() {
+        // Given
+        Product first = productRepository.save(testProduct);
+        Product second = productRepository.save(Product.builder()
+                .name("Autre Produit")
+                .price(new BigDecimal("49.99"))
+                .stockQuantity(10)
+                .build());
+
+        // When
+        productService.reserveStock(List.of(
+                new StockItemRequest(first.getId(), 30),
+                new StockItemRequest(second.getId(), 4),
+                new StockItemRequest(second.getId(), 6)));
+
+        // Then
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getStockQuantity()).isEqualTo(70);
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getStockQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("Doit refuser la réservation si un produit manque de stock")
+    void shouldRejectReservationWhenOneProductIsShort() {
+        // Given
+        Product saved = productRepository.save(testProduct);
+
+        // When & Then
+        assertThatThrownBy(() -> productService.reserveStock(List.of(new StockItemRequest(saved.getId(), 150))))
+                .isInstanceOf(com.secure.product.exception.InsufficientStockException.class)
+                .hasMessageContaining("Produit Test");
+    }
+
+    @Test
+    @DisplayName("Doit appliquer une seule fois une réservation renvoyée, puis la rendre une seule fois")
+    void shouldApplyRetriedReservationOnce() {
+        // Given
+        Product saved = productRepository.save(testProduct);
+        List<StockItemRequest> items = List.of(new StockItemRequest(saved.getId(), 10));
+        productService.reserveStock("resa-1", items);
+
+        // When : nouvel essai après un délai dépassé, puis deux libérations
+        productService.reserveStock("resa-1", items);
+        orderEventService.handle(new OrderEvent("evt-abort-1", OrderEvent.ORDER_ABORTED, null, "user-1",
+                List.of(new OrderEvent.Item(saved.getId(), 10)), null, "resa-1"));
+        orderEventService.handle(new OrderEvent("evt-abort-2", OrderEvent.ORDER_ABORTED, null, "user-1",
+                List.of(new OrderEvent.Item(saved.getId(), 10)), null, "resa-1"));
+
+        // Then
+        assertThat(productRepository.findById(saved.getId()).orElseThrow().getStockQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Doit refuser une réservation rendue avant d'avoir été reçue")
+    void shouldRejectReservationReleasedBeforeArrival() {
+        // Given
+        Product saved = productRepository.save(testProduct);
+        orderEventService.handle(new OrderEvent("evt-abort-early", OrderEvent.ORDER_ABORTED, null, "user-1",
+                List.of(new OrderEvent.Item(saved.getId(), 10)), null, "resa-late"));
+
+        // When & Then
+        assertThatThrownBy(() -> productService.reserveStock("resa-late",
+                List.of(new StockItemRequest(saved.getId(), 10))))
+                .isInstanceOf(com.secure.product.exception.ReservationReleasedException.class);
+        assertThat(productRepository.findById(saved.getId()).orElseThrow().getStockQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Doit répartir le stock d'un produit en compartiments et en reporter le total")
+    void shouldDecrementStripedStockAcrossBuckets() {
+        // Given
+        testProduct.setStockBuckets(4);
+        Product saved = productService.createProduct(testProduct, "admin");
+
+        // When
+        productService.decrementStock(saved.getId(), 10);
+        productService.decrementStock(saved.getId(), 30);
+        productService.reserveStock(List.of(new StockItemRequest(saved.getId(), 5)));
+
+        // Then
+        assertThat(productService.getProductById(saved.getId()).getStockQuantity()).isEqualTo(55);
+        assertThat(productService.checkStockAvailability(saved.getId(), 55)).isTrue();
+        assertThat(productService.checkStockAvailability(saved.getId(), 56)).isFalse();
+        assertThatThrownBy(() -> productService.decrementStock(saved.getId(), 56))
+                .isInstanceOf(com.secure.product.exception.InsufficientStockException.class);
+    }
+
+    @Test
+    @DisplayName("Doit conserver la répartition en compartiments si la mise à jour ne la précise pas")
+    void shouldKeepStockBucketsWhenUpdateOmitsThem() {
+        // Given
+        testProduct.setStockBuckets(4);
+        Product saved = productService.createProduct(testProduct, "admin");
+        Product updateData = Product.builder()
+                .name("Produit Modifié")
+                .description("Nouvelle description")
+                .price(new BigDecimal("149.99"))
+                .stockQuantity(80)
+                .build();
+
+        // When
+        productService.updateProduct(saved.getId(), updateData);
+
+        // Then
+        assertThat(productRepository.findById(saved.getId()))
+                .hasValueSatisfying(stored -> assertThat(stored.getStockBuckets()).isEqualTo(4));
+        assertThat(productService.getProductById(saved.getId()).getStockQuantity()).isEqualTo(80);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Doit regrouper les décrémentations concurrentes et répondre à chaque appelant")
+    void shouldCoalesceConcurrentDecrements() {
+        // Given : le lot s'applique dans sa propre transaction, le produit doit être validé
+        testProduct.setStockQuantity(10);
+        Product saved = productRepository.save(testProduct);
+
+        DistributionSummary batchSize = meterRegistry.get("product.stock.decrement.batch.size").summary();
+        long batchesBefore = batchSize.count();
+        double requestsBefore = batchSize.totalAmount();
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            // When
+            List<CompletableFuture<Boolean>> results = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await();
+                            stockDecrementBatcher.decrement(saved.getId(), 3);
+                            return true;
+                        } catch (com.secure.product.exception.InsufficientStockException e) {
+                            return false;
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }, callers))
+                    .toList();
+            start.countDown();
+
+            // Then
+            assertThat(results.stream().map(CompletableFuture::join).filter(accepted -> accepted)).hasSize(3);
+            assertThat(productRepository.findById(saved.getId()).orElseThrow().getStockQuantity()).isEqualTo(1);
+            // Les 4 demandes sont passées par le regroupement, en moins de 4 lots
+            assertThat(batchSize.totalAmount() - requestsBefore).isEqualTo(4.0);
+            assertThat(batchSize.count() - batchesBefore).isLessThan(4);
+        } finally {
+            callers.shutdown();
+            productRepository.deleteById(saved.getId());
+        }
+    }
 }
@@ -0,0 +1,218 @@
+package com.secure.product.inventory;
+
+import com.secure.product.entity.Product;
+import com.secure.product.entity.StockLedgerCheckpoint;
+import com.secure.product.repository.ProductRepository;
+import com.secure.product.repository.StockBucketRepository;
+import com.secure.product.repository.StockLedgerCheckpointRepository;
+import com.secure.product.service.ProductService;
+import com.secure.product.service.StockBucketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests du registre de stock en mémoire et de son journal.
+ * Le registre n'étant pas actif dans le profil de test, chaque test construit le sien
+ * sur un répertoire de journal temporaire ; un nouveau registre sur le même répertoire
+ * simule un redémarrage.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLedgerTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockBucketRepository stockBucketRepository;
+
+    @Autowired
+    private StockLedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StockBucketService stockBucketService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path journalDir;
+
+    private final List<StockLedger> ledgers = new ArrayList<>();
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .name("Produit Registre")
+                .description("Produit du registre de stock")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(10)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (StockLedger ledger : ledgers) {
+            ledger.journal().close();
+        }
+        stockBucketRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Doit rejouer au démarrage les variations journalisées non reportées")
+    void shouldReplayJournalOnStartup() throws IOException {
+        // Given
+        StockLedger ledger = startLedger();
+        assertThat(ledger.tryDecrement(product.getId(), 3)).isTrue();
+
+        // When - arrêt brutal, sans report en base
+        StockLedger restarted = startLedger();
+
+        // Then
+        assertThat(restarted.stock(product.getId())).hasValue(7);
+        assertThat(storedStock()).isEqualTo(10);
+        restarted.flush();
+        assertThat(storedStock()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Doit ignorer une entrée corrompue ou incomplète en fin de journal")
+    void shouldStopReplayAtCorruptTail() throws IOException {
+        // Given
+        try (StockJournal journal = new StockJournal(journalDir, false)) {
+            journal.roll(1);
+            journal.append(List.of(
+                    new StockJournal.Entry(1, product.getId(), -2),
+                    new StockJournal.Entry(2, product.getId(), -3)));
+        }
+        Path segment = singleSegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(segment, bytes);
+        Files.write(segment, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        // When
+        StockLedger ledger = startLedger();
+
+        // Then
+        assertThat(ledger.journal().readAll()).extracting(StockJournal.Entry::sequence).containsExactly(1L);
+        assertThat(ledger.stock(product.getId())).hasValue(8);
+    }
+
+    @Test
+    @DisplayName("Ne doit rejouer que les entrées postérieures au dernier report")
+    void shouldReplayOnlyEntriesAfterCheckpoint() throws IOException {
+        // Given
+        StockLedger ledger = startLedger();
+        ledger.tryDecrement(product.getId(), 2);
+        ledger.flush();
+        ledger.tryDecrement(product.getId(), 3);
+
+        // Then - les segments reportés sont supprimés, la séquence est enregistrée
+        assertThat(checkpointRepository.findById(StockLedgerCheckpoint.ID))
+                .hasValueSatisfying(checkpoint -> assertThat(checkpoint.getJournalSequence()).isEqualTo(1L));
+        assertThat(ledger.journal().readAll()).extracting(StockJournal.Entry::sequence).containsExactly(2L);
+        assertThat(storedStock()).isEqualTo(8);
+
+        // When
+        StockLedger restarted = startLedger();
+
+        // Then - la première décrémentation n'est pas appliquée deux fois
+        assertThat(restarted.stock(product.getId())).hasValue(5);
+    }
+
+    @Test
+    @DisplayName("Doit compenser une décrémentation dont la transaction est annulée")
+    void shouldCompensateDecrementOnRollback() throws IOException {
+        // Given
+        StockLedger ledger = startLedger();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(ledger.tryDecrement(product.getId(), 4)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(ledger.stock(product.getId())).hasValue(10);
+        assertThat(ledger.journal().readAll()).extracting(StockJournal.Entry::delta).containsExactly(-4, 4);
+        ledger.flush();
+        assertThat(storedStock()).isEqualTo(10);
+        assertThat(startLedger().stock(product.getId())).hasValue(10);
+    }
+
+    @Test
+    @DisplayName("Doit reporter le stock d'un produit réparti dans ses compartiments")
+    void shouldFlushStripedProductIntoBuckets() throws IOException {
+        // Given
+        Product striped = productService.createProduct(Product.builder()
+                .name("Produit Réparti")
+                .description("Produit réparti en compartiments")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(40)
+                .stockBuckets(4)
+                .build(), "admin");
+        StockLedger ledger = startLedger();
+
+        // When
+        assertThat(ledger.tryDecrement(striped.getId(), 15)).isTrue();
+        ledger.flush();
+
+        // Then
+        assertThat(productRepository.findById(striped.getId()))
+                .hasValueSatisfying(stored -> assertThat(stored.getStockQuantity()).isZero());
+        assertThat(stockBucketService.totals(List.of(striped.getId()))).containsEntry(striped.getId(), 25);
+        assertThat(stockBucketRepository.findAll())
+                .filteredOn(bucket -> bucket.getProductId().equals(striped.getId()))
+                .allSatisfy(bucket -> assertThat(bucket.getQuantity()).isBetween(6, 7));
+    }
+
+    private StockLedger startLedger() throws IOException {
+        StockLedger ledger = new StockLedger(productRepository, checkpointRepository, jdbcTemplate,
+                transactionTemplate, stockBucketService, new SimpleMeterRegistry(), journalDir, false);
+        ledger.recover();
+        ledgers.add(ledger);
+        return ledger;
+    }
+
+    private int storedStock() {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?",
+                Integer.class, product.getId());
+    }
+
+    private Path singleSegment() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.secure.common.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envoie les transactions en lecture seule ({@code @Transactional(readOnly = true)})
+ * aux réplicas, à tour de rôle, et tout le reste au primaire.
+ * <p>
+ * Lecture de ses propres écritures : après le commit d'une transaction d'écriture,
+ * les lectures du même utilisateur restent sur le primaire pendant
+ * {@code readYourWritesWindow}, le temps que les réplicas rattrapent leur retard.
+ * {@link #readFromPrimary()} étend cette fenêtre à toutes les lectures, pour les
+ * rechargements de cache qui suivent la diffusion d'une invalidation.
+ * Un réplica injoignable est remplacé par le primaire.
+ * <p>
+ * Doit être enveloppé dans un {@code LazyConnectionDataSourceProxy} : la connexion
+ * n'est alors choisie qu'à la première requête SQL, une fois la transaction et son
+ * attribut readOnly connus.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Cache<String, Boolean> recentWriters;
+    private final long readYourWritesNanos;
+    private volatile long primaryUntil;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+            Duration readYourWritesWindow) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        pools.add(primary);
+        for (HikariDataSource replica : replicas) {
+            targets.put(replica.getPoolName(), replica);
+            replicaKeys.add(replica.getPoolName());
+            pools.add(replica);
+        }
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.primaryUntil = System.nanoTime();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(user, Boolean.TRUE);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || System.nanoTime() - primaryUntil < 0
+                || (user != null && recentWriters.getIfPresent(user) != null)) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /**
+     * Envoie toutes les lectures au primaire pendant {@code readYourWritesWindow}.
+     * À appeler avant de diffuser un changement : les abonnés qui rechargent aussitôt
+     * l'entrée invalidée lisent la nouvelle valeur, pas celle d'un réplica en retard.
+     */
+    public void readFromPrimary() {
+        primaryUntil = System.nanoTime() + readYourWritesNanos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        DataSource primary = getResolvedDefaultDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) {
+                throw e;
+            }
+            log.warn("Réplica indisponible, lecture sur le primaire: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.secure.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Métriques d'épinglage des threads virtuels, actives avec
+ * {@code spring.threads.virtual.enabled} dans les services Produit et Commande.
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadMetricsAutoConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics(MeterRegistry registry,
+            @Value("${virtual-threads.pinning.threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMetrics(registry, threshold);
+    }
+}
@@ -0,0 +1,105 @@
+package com.secure.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Expose dans Micrometer les épisodes où un thread virtuel reste épinglé à son
+ * thread porteur (bloc synchronized, appel natif...), à partir des événements JFR.
+ * <ul>
+ * <li>{@code jvm.threads.virtual.pinned} : nombre et durée des épinglages</li>
+ * <li>{@code jvm.threads.virtual.pinned.last} : durée du dernier épinglage observé</li>
+ * <li>{@code jvm.threads.virtual.carriers} : threads porteurs vivants</li>
+ * <li>{@code jvm.threads.virtual.parallelism} : parallélisme visé par le planificateur</li>
+ * <li>{@code jvm.threads.virtual.submit.failed} : démarrages de threads virtuels refusés</li>
+ * </ul>
+ * Enregistré par {@link VirtualThreadMetricsAutoConfiguration}.
+ */
+@Slf4j
+public class VirtualThreadPinningMetrics {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+    private final Counter submitFailedCounter;
+    private volatile double lastPinnedMillis;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMetrics(MeterRegistry registry, Duration threshold) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Durée pendant laquelle un thread virtuel a bloqué son thread porteur")
+                .register(registry);
+        this.submitFailedCounter = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("Threads virtuels n'ayant pas pu être planifiés")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.pinned.last", this, metrics -> metrics.lastPinnedMillis)
+                .description("Durée du dernier épinglage observé")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.carriers", VirtualThreadPinningMetrics::liveCarriers)
+                .description("Threads porteurs vivants du planificateur de threads virtuels")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.parallelism", VirtualThreadPinningMetrics::carrierParallelism)
+                .description("Parallélisme visé par le planificateur de threads virtuels")
+                .register(registry);
+    }
+
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.enable(SUBMIT_FAILED_EVENT);
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            Duration duration = event.getDuration();
+            pinnedTimer.record(duration);
+            lastPinnedMillis = duration.toNanos() / 1_000_000.0;
+            if (log.isDebugEnabled() && event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+                log.debug("Thread virtuel épinglé pendant {} ms dans {}", lastPinnedMillis,
+                        event.getStackTrace().getFrames().get(0).getMethod().getType().getName());
+            }
+        });
+        recordingStream.onEvent(SUBMIT_FAILED_EVENT, event -> submitFailedCounter.increment());
+        recordingStream.startAsync();
+        log.info("Suivi de l'épinglage des threads virtuels actif (seuil: {} ms)", threshold.toMillis());
+    }
+
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    /**
+     * Compte les threads porteurs existants : le planificateur en crée au-delà du
+     * parallélisme visé pour compenser les porteurs bloqués (épinglage, appels natifs).
+     */
+    private static double liveCarriers() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() + 16];
+        int count = root.enumerate(threads, true);
+        int carriers = 0;
+        for (int i = 0; i < count; i++) {
+            if (threads[i].getClass().getName().equals(CARRIER_THREAD_CLASS)) {
+                carriers++;
+            }
+        }
+        return carriers;
+    }
+
+    private static double carrierParallelism() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,110 @@
+package com.secure.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Authentification des bearer tokens avec cache des tokens déjà validés.
+ * Un même token est présenté à chaque requête d'une session : la vérification de la
+ * signature RS256 et la conversion des rôles ne sont faites qu'une fois, puis le
+ * résultat est réutilisé jusqu'à l'expiration du token ({@code exp}).
+ * La clé du cache est l'empreinte SHA-256 du token, jamais le token lui-même.
+ * Les statistiques sont publiées sous le cache {@value #CACHE_NAME}.
+ */
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+    public static final String CACHE_NAME = "jwt-authentications";
+
+    private final JwtAuthenticationProvider delegate;
+    private final Cache<String, JwtAuthenticationToken> cache;
+
+    public CachingJwtAuthenticationManager(JwtDecoder jwtDecoder,
+            Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter,
+            long maximumSize, Duration maxTtl, MeterRegistry meterRegistry) {
+        this.delegate = new JwtAuthenticationProvider(jwtDecoder);
+        this.delegate.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, JwtAuthenticationToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtAuthenticationToken authentication, long currentTime) {
+                        return remainingNanos(authentication.getToken(), maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtAuthenticationToken authentication, long currentTime,
+                            long currentDuration) {
+                        return remainingNanos(authentication.getToken(), maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtAuthenticationToken authentication, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
+        String key = sha256(bearer.getToken());
+
+        // Pas de cache.get(key, loader) : la vérification (et un éventuel appel JWKS)
+        // ne doit pas s'exécuter sous le verrou de la map
+        JwtAuthenticationToken validated = cache.getIfPresent(key);
+        if (validated == null) {
+            validated = (JwtAuthenticationToken) delegate.authenticate(bearer);
+            cache.put(key, validated);
+        }
+
+        // Les détails (adresse IP...) sont propres à chaque requête : le token en cache n'est jamais exposé
+        JwtAuthenticationToken result = new JwtAuthenticationToken(validated.getToken(),
+                validated.getAuthorities(), validated.getName());
+        result.setDetails(bearer.getDetails());
+        return result;
+    }
+
+    private static long remainingNanos(Jwt jwt, Duration maxTtl) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtl.toNanos();
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return 0;
+        }
+        return Math.min(remaining.toNanos(), maxTtl.toNanos());
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.secure.common.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Identité de l'utilisateur transmise entre services internes dans l'en-tête
+ * {@value #HEADER}, une fois le JWT vérifié en amont (gateway).
+ * Format compact : {@code base64url(sujet \n username \n rôles \n exp).base64url(HMAC-SHA256)}.
+ * La vérification ne coûte qu'un HMAC, au lieu d'une vérification de signature RS256.
+ * Le gateway et le service Commande signent ; les services Produit et Commande vérifient
+ * ({@link InternalIdentityFilter}).
+ */
+public record InternalIdentity(String subject, String username, List<String> roles, Instant expiresAt) {
+
+    public static final String HEADER = "X-Internal-Identity";
+
+    /**
+     * Taille minimale du secret en octets : celle d'une clé HMAC-SHA256.
+     */
+    public static final int MIN_SECRET_LENGTH = 32;
+
+    private static final String PLACEHOLDER_PREFIX = "change-me";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Clé HMAC tirée de {@code internal.identity.secret}. Refuse au démarrage un secret
+     * trop court ou resté à sa valeur d'exemple : quiconque le connaît peut se forger
+     * une identité auprès des services.
+     */
+    public static byte[] secretKey(String secret) {
+        byte[] key = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("internal.identity.secret doit contenir au moins "
+                    + MIN_SECRET_LENGTH + " octets (par exemple `openssl rand -hex 32`)");
+        }
+        if (secret.startsWith(PLACEHOLDER_PREFIX)) {
+            throw new IllegalStateException("internal.identity.secret est encore la valeur d'exemple");
+        }
+        return key;
+    }
+
+    /**
+     * Reprend l'identité portée par les claims d'un JWT déjà vérifié.
+     */
+    @SuppressWarnings("unchecked")
+    public static InternalIdentity from(Map<String, Object> claims, Instant expiresAt) {
+        List<String> roles = List.of();
+        if (claims.get("realm_access") instanceof Map<?, ?> realmAccess
+                && realmAccess.get("roles") instanceof List<?> list) {
+            roles = (List<String>) list;
+        }
+        Object username = claims.get("preferred_username");
+        return new InternalIdentity((String) claims.get("sub"), username != null ? username.toString() : null,
+                roles, expiresAt);
+    }
+
+    public String sign(byte[] secret) {
+        String payload = String.join("\n", subject, username != null ? username : "",
+                String.join(",", roles), String.valueOf(expiresAt.getEpochSecond()));
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(hmac(secret, encodedPayload));
+    }
+
+    /**
+     * Vérifie la signature et l'expiration d'un en-tête d'identité.
+     * Retourne un Optional vide si l'en-tête est invalide, falsifié ou expiré.
+     */
+    public static Optional<InternalIdentity> verify(String value, byte[] secret) {
+        int separator = value.indexOf('.');
+        if (separator <= 0 || secret.length == 0) {
+            return Optional.empty();
+        }
+        try {
+            String encodedPayload = value.substring(0, separator);
+            byte[] signature = DECODER.decode(value.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, hmac(secret, encodedPayload))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split("\n", -1);
+            if (fields.length != 4) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                return Optional.empty();
+            }
+            List<String> roles = fields[2].isEmpty() ? List.of() : Arrays.asList(fields[2].split(","));
+            return Optional.of(new InternalIdentity(fields[0], fields[1].isEmpty() ? null : fields[1],
+                    roles, expiresAt));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Représente l'identité sous forme de {@link Jwt} pour les contrôleurs
+     * ({@code @AuthenticationPrincipal Jwt}) et le convertisseur de rôles.
+     * {@code tokenValue} reste le token d'origine, propagé tel quel aux autres services.
+     */
+    public Jwt toJwt(String tokenValue) {
+        Jwt.Builder builder = Jwt.withTokenValue(tokenValue)
+                .header("alg", "HS256")
+                .header("typ", "internal")
+                .subject(subject)
+                .claim("realm_access", Map.of("roles", roles))
+                .expiresAt(expiresAt);
+        if (username != null) {
+            builder.claim("preferred_username", username);
+        }
+        return builder.build();
+    }
+
+    private static byte[] hmac(byte[] secret, String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.secure.common.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Optional;
+
+/**
+ * Authentifie la requête à partir de l'en-tête {@link InternalIdentity#HEADER} signé
+ * par le gateway, sans revérifier le JWT.
+ * L'en-tête Authorization est alors masqué au filtre bearer token, mais le token
+ * d'origine reste la valeur du {@link Jwt} courant pour être propagé. Un en-tête
+ * absent ou invalide laisse la vérification JWT habituelle s'appliquer.
+ */
+@Slf4j
+public class InternalIdentityFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final byte[] secret;
+    private final Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public InternalIdentityFilter(byte[] secret,
+            Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter) {
+        this.secret = secret;
+        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(InternalIdentity.HEADER);
+        if (header == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<InternalIdentity> identity = InternalIdentity.verify(header, secret);
+        if (identity.isEmpty()) {
+            log.warn("En-tête d'identité interne invalide ou expiré, vérification du JWT");
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String tokenValue = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length()) : header;
+        AbstractAuthenticationToken authentication = jwtAuthenticationConverter.convert(identity.get().toJwt(tokenValue));
+        authentication.setDetails(detailsSource.buildDetails(request));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+
+        chain.doFilter(new WithoutAuthorizationHeader(request), response);
+    }
+
+    /**
+     * Masque l'en-tête Authorization pour que le JWT ne soit pas vérifié une seconde fois.
+     */
+    private static class WithoutAuthorizationHeader extends HttpServletRequestWrapper {
+
+        WithoutAuthorizationHeader(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ? Collections.emptyEnumeration()
+                    : super.getHeaders(name);
+        }
+    }
+}
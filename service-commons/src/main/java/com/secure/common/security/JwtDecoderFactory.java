@@ -0,0 +1,54 @@
+package com.secure.common.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Vérification des JWT Keycloak partagée par le gateway et les services.
+ * Le jeu de clés (JWKS) est rafraîchi en arrière-plan avant son expiration :
+ * une rotation de clés ne bloque pas les requêtes en cours.
+ * Nécessite nimbus-jose-jwt 9.31 ou plus ({@link JWKSourceBuilder}).
+ */
+public final class JwtDecoderFactory {
+
+    private JwtDecoderFactory() {
+    }
+
+    /**
+     * Processeur Nimbus qui ne vérifie que la signature RS256 ; les claims sont
+     * validés par Spring Security ({@link JwtValidators}).
+     */
+    public static DefaultJWTProcessor<SecurityContext> jwtProcessor(String jwkSetUri, Duration jwksTtl,
+            Duration jwksRefreshAhead) throws MalformedURLException {
+        JWKSource<SecurityContext> jwkSource = JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL())
+                .cache(jwksTtl.toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                .refreshAheadCache(jwksRefreshAhead.toMillis(), true)
+                .build();
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return jwtProcessor;
+    }
+
+    /**
+     * Décodeur des services servlet (Produit, Commande).
+     */
+    public static JwtDecoder jwtDecoder(String jwkSetUri, String issuerUri, Duration jwksTtl,
+            Duration jwksRefreshAhead) throws MalformedURLException {
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor(jwkSetUri, jwksTtl, jwksRefreshAhead));
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+}
@@ -0,0 +1,125 @@
+package com.secure.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests du routage primaire / réplica, sur deux bases H2 en mémoire distinctes :
+ * chacune contient une seule ligne qui indique sur quelle base la lecture a eu lieu.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica-1");
+        start(List.of(replica));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        routing.close();
+    }
+
+    @Test
+    @DisplayName("Doit lire sur le réplica en transaction readOnly et écrire sur le primaire")
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        assertThat(readOnlySource()).isEqualTo("replica-1");
+        assertThat(readWriteSource()).isEqualTo("primary");
+        assertThat(source()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Doit garder les lectures d'un utilisateur sur le primaire après son écriture")
+    void shouldReadYourWrites() {
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE source SET name = name"));
+
+        assertThat(readOnlySource()).isEqualTo("primary");
+
+        authenticate("bob");
+        assertThat(readOnlySource()).isEqualTo("replica-1");
+    }
+
+    @Test
+    @DisplayName("Doit envoyer toutes les lectures au primaire après la diffusion d'un changement")
+    void shouldReadFromPrimaryAfterChange() {
+        routing.readFromPrimary();
+
+        assertThat(readOnlySource()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Doit lire sur le primaire quand le réplica est injoignable")
+    void shouldFallBackToPrimaryWhenReplicaIsDown() {
+        routing.close();
+        primary = database("primary");
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setPoolName("replica-1");
+        unreachable.setJdbcUrl("jdbc:h2:tcp://localhost:1/replica");
+        unreachable.setConnectionTimeout(250);
+        start(List.of(unreachable));
+
+        assertThat(readOnlySource()).isEqualTo("primary");
+    }
+
+    private void start(List<HikariDataSource> replicas) {
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String readOnlySource() {
+        return readOnly.execute(status -> source());
+    }
+
+    private String readWriteSource() {
+        return readWrite.execute(status -> source());
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS source (name VARCHAR(20))");
+        jdbc.update("DELETE FROM source");
+        jdbc.update("INSERT INTO source (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.secure.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMetricsTest {
+
+    @Test
+    @DisplayName("Doit compter les threads porteurs vivants à chaque lecture de la jauge")
+    void shouldReportLiveCarriers() throws InterruptedException {
+        // Given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new VirtualThreadPinningMetrics(registry, Duration.ofMillis(20));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        Thread thread = Thread.ofVirtual().start(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+
+        // Then
+        assertThat(registry.get("jvm.threads.virtual.carriers").gauge().value()).isGreaterThanOrEqualTo(1);
+        release.countDown();
+        thread.join();
+    }
+}
@@ -0,0 +1,63 @@
+package com.secure.common.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InternalIdentityTest {
+
+    private static final byte[] SECRET = InternalIdentity.secretKey("0123456789abcdef0123456789abcdef");
+
+    @Test
+    @DisplayName("Doit relire l'identité signée avec le même secret")
+    void shouldVerifySignedIdentity() {
+        // Given
+        Instant expiresAt = Instant.now().plusSeconds(30).truncatedTo(ChronoUnit.SECONDS);
+        InternalIdentity identity = new InternalIdentity("sub-1", "alice", List.of("user", "admin"), expiresAt);
+
+        // When
+        String header = identity.sign(SECRET);
+
+        // Then
+        assertThat(InternalIdentity.verify(header, SECRET)).contains(identity);
+    }
+
+    @Test
+    @DisplayName("Doit refuser une identité falsifiée, signée avec un autre secret ou expirée")
+    void shouldRejectForgedOrExpiredIdentity() {
+        // Given
+        InternalIdentity identity = new InternalIdentity("sub-1", "alice", List.of("user"),
+                Instant.now().plusSeconds(30));
+        InternalIdentity admin = new InternalIdentity("sub-1", "alice", List.of("admin"),
+                Instant.now().plusSeconds(30));
+        byte[] otherSecret = InternalIdentity.secretKey("fedcba9876543210fedcba9876543210");
+        String header = identity.sign(SECRET);
+        String adminHeader = admin.sign(SECRET);
+        // Charge utile d'une autre identité avec la signature de la première
+        String forged = adminHeader.substring(0, adminHeader.indexOf('.')) + header.substring(header.indexOf('.'));
+        String expired = new InternalIdentity("sub-1", "alice", List.of("user"), Instant.now().minusSeconds(1))
+                .sign(SECRET);
+
+        // Then
+        assertThat(InternalIdentity.verify(forged, SECRET)).isEmpty();
+        assertThat(InternalIdentity.verify(header, otherSecret)).isEmpty();
+        assertThat(InternalIdentity.verify(expired, SECRET)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Doit refuser un secret trop court ou resté à la valeur d'exemple")
+    void shouldRejectWeakSecret() {
+        assertThatThrownBy(() -> InternalIdentity.secretKey(""))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> InternalIdentity.secretKey("change-me-internal-identity"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> InternalIdentity.secretKey("change-me-internal-identity-0123456789"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}